@@ -0,0 +1,50 @@
+package com.now.admin.benchmark;
+
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import com.now.admin.service.auth.domain.PermissionSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录用户权限转换基准测试
+ * getAuthorities 在每次鉴权时调用，权限数量取常见角色的规模
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthoritiesBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int permCount;
+
+    private LoginUserDetail loginUser;
+
+    private LoginUserDetail sharedLoginUser;
+
+    @Setup
+    public void setup() {
+        loginUser = BenchmarkFixtures.loginUser(permCount);
+        sharedLoginUser = BenchmarkFixtures.loginUser(permCount);
+        sharedLoginUser.setPermissionSet(new PermissionSet("benchmark", sharedLoginUser.getRoles(), sharedLoginUser.getPerms()));
+    }
+
+    /**
+     * 会话自带权限，每次转换
+     */
+    @Benchmark
+    public Object getAuthorities() {
+        return loginUser.getAuthorities();
+    }
+
+    /**
+     * 引用共享权限集
+     */
+    @Benchmark
+    public Object getSharedAuthorities() {
+        return sharedLoginUser.getAuthorities();
+    }
+}
@@ -0,0 +1,46 @@
+package com.now.admin.benchmark;
+
+import com.now.admin.service.auth.domain.LoginUserDetail;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 基准测试公共数据
+ * 被测对象由 {@link com.now.admin.common.util.TestFixtures} 组装，与单元测试共用
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 构造登录用户
+     *
+     * @param permCount 权限数量
+     */
+    public static LoginUserDetail loginUser(int permCount) {
+        LoginUserDetail loginUser = new LoginUserDetail();
+        loginUser.setId(10001L);
+        loginUser.setUsername("admin");
+        loginUser.setAvatar("https://static.example.com/avatar/10001.png");
+        loginUser.setStatus(1);
+        loginUser.setLoginTime(LocalDateTime.of(2026, 1, 1, 9, 0));
+        loginUser.setPerms(perms(permCount));
+        loginUser.setRoles(Set.of("admin", "ops", "auditor"));
+        return loginUser;
+    }
+
+    /**
+     * 按 模块:资源:操作 的格式生成权限标识
+     */
+    public static Set<String> perms(int permCount) {
+        String[] actions = {"list", "query", "add", "edit", "remove"};
+        Set<String> perms = new LinkedHashSet<>();
+        for (int i = 0; i < permCount; i++) {
+            perms.add("sys:resource" + i / actions.length + ":" + actions[i % actions.length]);
+        }
+        return perms;
+    }
+}
@@ -0,0 +1,69 @@
+package com.now.admin.benchmark;
+
+import com.now.admin.common.config.SecretKeyConfig;
+import com.now.admin.common.util.LoginDeviceInfoUtil;
+import com.now.admin.common.util.RsaCryptoService;
+import com.now.admin.common.util.RsaUtil;
+import com.now.admin.common.util.TestFixtures;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录流程基准测试
+ * 设备解析依赖 ip2region_v4.xdb / ip2region_v6.xdb，运行前需放入 src/main/resources
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    private String privateKeyStr;
+
+    private String encryptedPassword;
+
+    private RsaCryptoService rsaCryptoService;
+
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setup() {
+        SecretKeyConfig secretKeyConfig = TestFixtures.secretKeyConfig();
+        privateKeyStr = secretKeyConfig.getPrivateKeyStr();
+        // 与前端一致，使用登录公钥加密密码
+        encryptedPassword = RsaUtil.encrypt("Admin@123456", secretKeyConfig.getPublicKeyStr());
+        rsaCryptoService = new RsaCryptoService();
+        ReflectionTestUtils.setField(rsaCryptoService, "secretKeyConfig", secretKeyConfig);
+
+        request = new MockHttpServletRequest("POST", "/auth/login");
+        request.addHeader("X-Forwarded-For", "116.25.146.21, 10.0.0.1");
+        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+                + "(KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36");
+    }
+
+    /**
+     * 每次解析私钥并创建Cipher
+     */
+    @Benchmark
+    public String decryptPassword() {
+        return RsaUtil.decrypt(encryptedPassword, privateKeyStr);
+    }
+
+    /**
+     * 复用已解析的私钥和池化的Cipher
+     */
+    @Benchmark
+    public String decryptPasswordCached() {
+        return rsaCryptoService.decrypt(encryptedPassword);
+    }
+
+    @Benchmark
+    public Object getLoginInfo() {
+        return LoginDeviceInfoUtil.getLoginInfo(request);
+    }
+}
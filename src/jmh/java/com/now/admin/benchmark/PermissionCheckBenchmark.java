@@ -0,0 +1,75 @@
+package com.now.admin.benchmark;
+
+import com.now.admin.service.auth.common.security.PermissionAuthorizationManager;
+import com.now.admin.service.auth.common.security.PermissionRegistry;
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import com.now.admin.service.auth.domain.PermissionSet;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 权限校验基准测试
+ * 对比遍历授权集合与权限位图两种方式校验两个权限（一个存在、一个位于末尾）的耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermissionCheckBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int permCount;
+
+    private Authentication authentication;
+
+    private List<String> required;
+
+    private PermissionAuthorizationManager<Object> manager;
+
+    @Setup
+    public void setup() {
+        PermissionRegistry registry = new PermissionRegistry();
+        LoginUserDetail loginUser = BenchmarkFixtures.loginUser(permCount);
+        loginUser.setPermissionSet(new PermissionSet("benchmark", loginUser.getRoles(), loginUser.getPerms(),
+                registry.encode(loginUser.getPerms())));
+        authentication = new UsernamePasswordAuthenticationToken(loginUser, null, loginUser.getAuthorities());
+        List<String> perms = List.copyOf(loginUser.getPerms());
+        required = List.of(perms.get(0), perms.get(perms.size() - 1));
+        manager = PermissionAuthorizationManager.allOf(registry, required.toArray(String[]::new));
+    }
+
+    /**
+     * 遍历授权集合逐个比较
+     */
+    @Benchmark
+    public boolean authorityScan() {
+        for (String perm : required) {
+            boolean found = false;
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                if (perm.equals(authority.getAuthority())) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 预编译的权限位图掩码
+     */
+    @Benchmark
+    public boolean bitsetCheck() {
+        return manager.check(authentication);
+    }
+}
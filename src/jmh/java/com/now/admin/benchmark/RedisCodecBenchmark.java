@@ -0,0 +1,91 @@
+package com.now.admin.benchmark;
+
+import com.now.admin.common.serializer.CompactRedisSerializer;
+import com.now.admin.common.util.TestFixtures;
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import com.now.admin.service.auth.domain.PermissionSet;
+import com.now.admin.service.sys.domain.SysUser;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis值编码基准测试
+ * 对比带类型信息的JSON与紧凑二进制格式的序列化、反序列化耗时，编码后的字节数作为 serialize 的辅助计数 encodedBytes 输出；
+ * 登录用户按实际会话的形式引用共享权限集，运行方式：mvn -P benchmark test-compile exec:exec -Dbenchmark.include=RedisCodec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisCodecBenchmark {
+
+    @Param({"loginUser", "permissionSet", "sysUser"})
+    private String type;
+
+    @Param({"json", "binary"})
+    private String codec;
+
+    private CompactRedisSerializer serializer;
+
+    private Object value;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        serializer = TestFixtures.redisValueSerializer("binary".equals(codec));
+        value = switch (type) {
+            case "loginUser" -> {
+                LoginUserDetail loginUser = BenchmarkFixtures.loginUser(200);
+                loginUser.setPermissionSet(new PermissionSet("c0ffee00c0ffee00", loginUser.getRoles(), loginUser.getPerms()));
+                yield loginUser;
+            }
+            case "permissionSet" -> new PermissionSet("c0ffee00c0ffee00", Set.of("admin", "ops", "auditor"),
+                    BenchmarkFixtures.perms(200));
+            default -> sysUser();
+        };
+        bytes = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize(EncodedSize size) {
+        byte[] result = serializer.serialize(value);
+        size.encodedBytes = result.length;
+        return result;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    /**
+     * 编码后的字节数，随结果一起输出
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+
+        public long encodedBytes;
+    }
+
+    private static SysUser sysUser() {
+        SysUser sysUser = new SysUser();
+        sysUser.setId(10001L);
+        sysUser.setUsername("admin");
+        sysUser.setAvatar("https://static.example.com/avatar/10001.png");
+        sysUser.setGender("1");
+        sysUser.setStatus(1);
+        sysUser.setDeletedFlag(0);
+        sysUser.setBirthday(LocalDateTime.of(1990, 5, 1, 0, 0));
+        sysUser.setLunarCalendar(-1);
+        sysUser.setCreatedTime(LocalDateTime.of(2025, 12, 25, 10, 30));
+        sysUser.setUpdatedTime(LocalDateTime.of(2026, 1, 6, 15, 12, 11));
+        return sysUser;
+    }
+}
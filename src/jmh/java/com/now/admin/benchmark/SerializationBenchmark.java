@@ -0,0 +1,58 @@
+package com.now.admin.benchmark;
+
+import com.now.admin.common.domain.Result;
+import com.now.admin.common.util.JsonUtil;
+import com.now.admin.common.util.TestFixtures;
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 序列化基准测试
+ * 覆盖接口响应的JSON序列化和登录用户在Redis中的序列化
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"20", "200"})
+    private int permCount;
+
+    private Result<LoginUserDetail> result;
+
+    private LoginUserDetail loginUser;
+
+    private RedisSerializer<Object> redisSerializer;
+
+    private byte[] loginUserBytes;
+
+    @Setup
+    public void setup() {
+        loginUser = BenchmarkFixtures.loginUser(permCount);
+        result = Result.success(loginUser);
+        // 与Redis中存储登录用户使用同一个序列化器
+        redisSerializer = TestFixtures.redisValueSerializer(true);
+        loginUserBytes = redisSerializer.serialize(loginUser);
+    }
+
+    @Benchmark
+    public String resultToJson() {
+        return JsonUtil.toJson(result);
+    }
+
+    @Benchmark
+    public byte[] serializeLoginUser() {
+        return redisSerializer.serialize(loginUser);
+    }
+
+    @Benchmark
+    public Object deserializeLoginUser() {
+        return redisSerializer.deserialize(loginUserBytes);
+    }
+}
@@ -0,0 +1,85 @@
+package com.now.admin.benchmark;
+
+import com.now.admin.common.constant.JwtAlgorithmEnum;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT签名算法基准测试
+ * 对比各算法签发、验签一个Token的耗时，运行方式：mvn -P benchmark test-compile exec:exec -Dbenchmark.include=TokenAlgorithm
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenAlgorithmBenchmark {
+
+    @Param({"RS256", "ES256", "EdDSA", "HS256"})
+    private String algorithm;
+
+    private JwtAlgorithmEnum jwtAlgorithm;
+
+    private Key signKey;
+
+    private JwtParser parser;
+
+    private String token;
+
+    @Setup
+    public void setup() throws Exception {
+        jwtAlgorithm = JwtAlgorithmEnum.fromCode(algorithm);
+        Key verifyKey;
+        if (jwtAlgorithm.isSymmetric()) {
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            signKey = jwtAlgorithm.parseSignKey(Base64.getEncoder().encodeToString(secret));
+            verifyKey = signKey;
+        } else {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(jwtAlgorithm.getKeyAlgorithm());
+            switch (jwtAlgorithm) {
+                case RS256 -> generator.initialize(2048);
+                case ES256 -> generator.initialize(new ECGenParameterSpec("secp256r1"));
+                default -> {
+                }
+            }
+            KeyPair keyPair = generator.generateKeyPair();
+            signKey = keyPair.getPrivate();
+            verifyKey = keyPair.getPublic();
+        }
+        parser = verifyKey instanceof SecretKey secretKey
+                ? Jwts.parser().verifyWith(secretKey).build()
+                : Jwts.parser().verifyWith((PublicKey) verifyKey).build();
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        Date now = new Date();
+        return Jwts.builder()
+                .claims(Map.of("userId", 1L, "loginFlag", "benchmark"))
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 3600_000L))
+                .signWith(signKey, jwtAlgorithm.getSignatureAlgorithm())
+                .compact();
+    }
+
+    @Benchmark
+    public Object verify() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,50 @@
+package com.now.admin.benchmark;
+
+import com.now.admin.common.util.TestFixtures;
+import com.now.admin.service.auth.service.impl.TokenService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token签发与解析基准测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenServiceBenchmark {
+
+    private TokenService tokenService;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenService = TestFixtures.tokenService(TestFixtures.secretKeyConfig());
+        token = tokenService.generateToken(10001L, "a3f1c2d4e5b6");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenService.generateToken(10001L, "a3f1c2d4e5b6");
+    }
+
+    /**
+     * 每次都完整验签
+     */
+    @Benchmark
+    public Object getClaimsFromToken() {
+        return tokenService.getClaimsFromToken(token);
+    }
+
+    /**
+     * 命中已验签Token缓存
+     */
+    @Benchmark
+    public Object parseToken() {
+        return tokenService.parseToken(token);
+    }
+}
@@ -4,10 +4,12 @@ import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @MapperScan("com.now.admin.service.**.mapper")
 @SpringBootApplication
+@EnableScheduling
 public class NowAdminApplication {
 
     public static void main(String[] args) {
@@ -1,17 +1,44 @@
 package com.now.admin.common.annotation;
 
+import java.lang.annotation.*;
+
+/**
+ * 接口限流
+ * 按令牌桶限流：桶容量为 maxCount，每 seconds 秒补满，即平均每 seconds/maxCount 秒补充一个令牌，
+ * 允许最多 maxCount 次的突发请求；超出时返回429及重试等待时间
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
 public @interface RateLimit {
+
+    /**
+     * 限流key前缀，默认为 类名.方法名
+     */
     String keyPrefix() default "-";
-    // 时间窗口（秒）
+
+    /**
+     * 时间窗口（秒）
+     */
     int seconds() default 60;
-    // 最大请求数
+
+    /**
+     * 时间窗口内的最大请求数
+     */
     int maxCount() default 100;
-    // 限制维度：userId / ip
+
+    /**
+     * 限制维度
+     */
     LimitType type() default LimitType.USER_ID;
 
     enum LimitType {
-        USER_ID, IP, GLOBAL
+        // 按登录用户，未登录时按IP
+        USER_ID,
+        // 按客户端IP
+        IP,
+        // 所有请求共用
+        GLOBAL
     }
 
 }
-
@@ -0,0 +1,30 @@
+package com.now.admin.common.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 方法级权限校验
+ * 标注在方法或类上，所需权限在首次调用时编译为位图掩码
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresPerms {
+
+    /**
+     * 权限标识
+     */
+    String[] value();
+
+    /**
+     * 多个权限的组合方式
+     */
+    Logical logical() default Logical.ALL;
+
+    enum Logical {
+        // 需要全部权限
+        ALL,
+        // 需要任一权限
+        ANY
+    }
+}
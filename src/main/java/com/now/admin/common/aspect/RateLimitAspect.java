@@ -1,22 +1,92 @@
 package com.now.admin.common.aspect;
 
+import com.now.admin.common.annotation.RateLimit;
+import com.now.admin.common.constant.RedisKeyConstant;
+import com.now.admin.common.exception.RateLimitException;
+import com.now.admin.common.util.LoginDeviceInfoUtil;
+import com.now.admin.common.util.LocalRateLimiter;
+import com.now.admin.common.util.RedisRateLimiter;
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import com.now.admin.service.auth.provider.AuthProvider;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.lang.reflect.Method;
+
+/**
+ * 接口限流切面
+ * 按 @RateLimit 的维度拼接限流key：rate:limit:{keyPrefix}:{用户ID / IP / global}，
+ * keyPrefix未指定时使用 类名.方法名；超出限流时抛出 RateLimitException，由全局异常处理返回429。
+ * 全局限流先在本地租约中扣减，由 LocalRateLimiter 与Redis批量同步；
+ * 按用户、IP限流的key数量多、单个key请求少，本地租约只会把令牌分散到各节点，直接由 RedisRateLimiter 判断
+ */
 @Slf4j
 @Aspect
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE + 1)
 public class RateLimitAspect {
 
+    private static final String DEFAULT_KEY_PREFIX = "-";
+
+    private static final String GLOBAL_KEY = "global";
+
+    @Resource
+    private LocalRateLimiter localRateLimiter;
+
+    @Resource
+    private RedisRateLimiter redisRateLimiter;
+
+    @Resource
+    private AuthProvider authProvider;
 
-//    @Around("@annotation(com.now.admin.common.annotation.RateLimit)")
-//    public Object around(ProceedingJoinPoint pjp, RateLimit rateLimit) throws Throwable {
-//        return null;
-//    }
+    @Around("@annotation(rateLimit)")
+    public Object around(ProceedingJoinPoint pjp, RateLimit rateLimit) throws Throwable {
+        String key = buildKey(pjp, rateLimit);
+        long waitMillis = rateLimit.type() == RateLimit.LimitType.GLOBAL
+                ? localRateLimiter.tryAcquire(key, rateLimit.maxCount(), rateLimit.seconds())
+                : redisRateLimiter.tryAcquire(key, rateLimit.maxCount(), rateLimit.seconds());
+        if (waitMillis > 0) {
+            log.warn("请求超出限流，key:{}，{}ms后可重试", key, waitMillis);
+            throw new RateLimitException((waitMillis + 999) / 1000);
+        }
+        return pjp.proceed();
+    }
 
+    private String buildKey(ProceedingJoinPoint pjp, RateLimit rateLimit) {
+        String keyPrefix = rateLimit.keyPrefix();
+        if (DEFAULT_KEY_PREFIX.equals(keyPrefix)) {
+            Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+            keyPrefix = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        }
+        String dimension = switch (rateLimit.type()) {
+            case USER_ID -> authProvider.getLoginUserDetail()
+                    .map(LoginUserDetail::getId)
+                    .map(String::valueOf)
+                    .orElseGet(RateLimitAspect::currentIp);
+            case IP -> currentIp();
+            case GLOBAL -> GLOBAL_KEY;
+        };
+        return RedisKeyConstant.RATE_LIMIT_PREFIX + keyPrefix + ":" + dimension;
+    }
 
+    /**
+     * 当前请求的客户端IP，非Web请求时返回unknown
+     */
+    private static String currentIp() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            return "ip:" + LoginDeviceInfoUtil.getRealIp(request);
+        }
+        return "ip:unknown";
+    }
 }
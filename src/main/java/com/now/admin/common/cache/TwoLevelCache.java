@@ -0,0 +1,301 @@
+package com.now.admin.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.now.admin.common.exception.RedisUnavailableException;
+import com.now.admin.common.util.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二级缓存：本地Caffeine（L1）+ Redis（L2）
+ * 读取先查本地，未命中查Redis并回填本地，都未命中时加载；同一key的并发加载只执行一次，其他线程等待结果
+ * （需使用 @Cacheable(sync = true)，非同步模式下Spring先查询再写入，无法合并加载）
+ *
+ * 空值只缓存在本地，不写入Redis；Redis不可用时视为未命中，直接加载，不影响业务。
+ * 修改、删除只清除本节点的本地缓存和Redis，其他节点的本地缓存在存活时间内仍可能返回旧值；
+ * 加载期间本节点清除了该key（evict / clear）时，加载结果可能已过时，只返回给等待的调用方，不写入缓存
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+
+    private final String keyPrefix;
+
+    private final long remoteTtlSeconds;
+
+    private final RedisUtil redisUtil;
+
+    private final Cache<Object, Object> localCache;
+
+    /**
+     * 正在加载的key
+     */
+    private final Map<Object, Loading> loadings = new ConcurrentHashMap<>();
+
+    private final LongAdder localHits = new LongAdder();
+
+    private final LongAdder remoteHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder loadFailures = new LongAdder();
+
+    private final LongAdder coalescedLoads = new LongAdder();
+
+    private final LongAdder loadNanos = new LongAdder();
+
+    public TwoLevelCache(String name, String keyPrefix, TwoLevelCacheProperties.Spec spec, RedisUtil redisUtil) {
+        super(true);
+        this.name = name;
+        this.keyPrefix = keyPrefix + name + "::";
+        this.remoteTtlSeconds = spec.getRemoteTtl().toSeconds();
+        this.redisUtil = redisUtil;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(spec.getLocalSize())
+                .expireAfterWrite(spec.getLocalTtl())
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return localCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object storeValue = localCache.getIfPresent(key);
+        if (storeValue != null) {
+            localHits.increment();
+            return storeValue;
+        }
+        storeValue = remoteGet(key);
+        if (storeValue != null) {
+            remoteHits.increment();
+            localCache.put(key, storeValue);
+            return storeValue;
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object storeValue = lookup(key);
+        if (storeValue != null) {
+            return (T) fromStoreValue(storeValue);
+        }
+        Loading loading = new Loading();
+        Loading inFlight = loadings.putIfAbsent(key, loading);
+        if (inFlight != null) {
+            coalescedLoads.increment();
+            return (T) fromStoreValue(await(key, valueLoader, inFlight.future));
+        }
+        try {
+            // 上一次加载可能在查询之后、登记之前刚完成
+            storeValue = localCache.getIfPresent(key);
+            if (storeValue == null) {
+                storeValue = toStoreValue(load(key, valueLoader));
+                storeLoaded(key, storeValue, loading);
+            }
+            loading.future.complete(storeValue);
+            return (T) fromStoreValue(storeValue);
+        } catch (RuntimeException | Error e) {
+            loading.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadings.remove(key, loading);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        store(key, toStoreValue(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object existing = lookup(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return toValueWrapper(existing);
+    }
+
+    @Override
+    public void evict(Object key) {
+        markEvicted(key);
+        localCache.invalidate(key);
+        remoteDel(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        markEvicted(key);
+        boolean present = localCache.asMap().remove(key) != null;
+        remoteDel(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        loadings.values().forEach(Loading::evict);
+        localCache.invalidateAll();
+        try {
+            redisUtil.delByPrefix(keyPrefix);
+        } catch (RedisUnavailableException e) {
+            log.warn("缓存{}清空Redis失败: {}", name, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = localCache.estimatedSize() > 0;
+        clear();
+        return notEmpty;
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Stats getStats() {
+        long loadCount = loads.sum();
+        return new Stats(localHits.sum(), remoteHits.sum(), misses.sum(), loadCount, loadFailures.sum(),
+                coalescedLoads.sum(), Duration.ofNanos(loadCount == 0 ? 0 : loadNanos.sum() / loadCount),
+                localCache.estimatedSize());
+    }
+
+    private <T> T load(Object key, Callable<T> valueLoader) {
+        long startTime = System.nanoTime();
+        try {
+            T value = valueLoader.call();
+            loads.increment();
+            return value;
+        } catch (Exception e) {
+            loadFailures.increment();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loadNanos.add(System.nanoTime() - startTime);
+        }
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    /**
+     * 写入加载结果，加载期间key被清除时放弃写入
+     * 清除时先标记再删除缓存：标记在写入本地之前，写入被跳过；标记在写入之后，写入的值随后被清除删掉。
+     * Redis写入后再检查一次标记，与清除的删除交错时也不会留下旧值
+     */
+    private void storeLoaded(Object key, Object storeValue, Loading loading) {
+        localCache.asMap().compute(key, (k, current) -> loading.evicted ? current : storeValue);
+        if (loading.evicted) {
+            return;
+        }
+        if (storeValue == NullValue.INSTANCE) {
+            remoteDel(key);
+            return;
+        }
+        redisUtil.set(remoteKey(key), storeValue, remoteTtlSeconds);
+        if (loading.evicted) {
+            remoteDel(key);
+        }
+    }
+
+    private void markEvicted(Object key) {
+        Loading loading = loadings.get(key);
+        if (loading != null) {
+            loading.evict();
+        }
+    }
+
+    private void store(Object key, Object storeValue) {
+        localCache.put(key, storeValue);
+        if (storeValue == NullValue.INSTANCE) {
+            // 空值不写入Redis，同时清除Redis中的旧值
+            remoteDel(key);
+        } else {
+            redisUtil.set(remoteKey(key), storeValue, remoteTtlSeconds);
+        }
+    }
+
+    private Object remoteGet(Object key) {
+        try {
+            return redisUtil.get(remoteKey(key));
+        } catch (RedisUnavailableException e) {
+            return null;
+        } catch (RuntimeException e) {
+            // 数据格式不兼容（如类结构变化）时视为未命中，加载后覆盖
+            log.warn("缓存{}读取Redis失败，key:{}，{}", name, key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void remoteDel(Object key) {
+        try {
+            redisUtil.del(remoteKey(key));
+        } catch (RedisUnavailableException e) {
+            log.warn("缓存{}删除Redis失败，key:{}，{}", name, key, e.getMessage());
+        }
+    }
+
+    private String remoteKey(Object key) {
+        return keyPrefix + key;
+    }
+
+    /**
+     * 正在进行的加载，evicted表示加载期间key被清除
+     */
+    private static final class Loading {
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private volatile boolean evicted;
+
+        private void evict() {
+            evicted = true;
+        }
+    }
+
+    /**
+     * 缓存统计
+     *
+     * @param localHits      本地命中次数
+     * @param remoteHits     本地未命中、Redis命中次数
+     * @param misses         两级都未命中次数
+     * @param loads          加载成功次数
+     * @param loadFailures   加载失败次数
+     * @param coalescedLoads 等待其他线程加载结果的次数
+     * @param avgLoadTime    平均加载耗时
+     * @param localSize      本地缓存条目数
+     */
+    public record Stats(long localHits, long remoteHits, long misses, long loads, long loadFailures,
+                        long coalescedLoads, Duration avgLoadTime, long localSize) {
+    }
+}
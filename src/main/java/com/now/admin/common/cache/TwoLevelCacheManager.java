@@ -0,0 +1,57 @@
+package com.now.admin.common.cache;
+
+import com.now.admin.common.util.RedisUtil;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 二级缓存管理器
+ * 启动时创建 cache.specs 中配置的缓存，其他缓存名在首次使用时按默认配置创建
+ */
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager {
+
+    private final RedisUtil redisUtil;
+
+    private final TwoLevelCacheProperties properties;
+
+    public TwoLevelCacheManager(RedisUtil redisUtil, TwoLevelCacheProperties properties) {
+        this.redisUtil = redisUtil;
+        this.properties = properties;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return properties.getSpecs().keySet().stream().map(this::createCache).toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name);
+    }
+
+    /**
+     * 各缓存的统计，key为缓存名
+     */
+    public Map<String, TwoLevelCache.Stats> getStats() {
+        Map<String, TwoLevelCache.Stats> stats = new LinkedHashMap<>();
+        for (String name : getCacheNames()) {
+            Cache cache = lookupCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            }
+            if (cache instanceof TwoLevelCache twoLevelCache) {
+                stats.put(name, twoLevelCache.getStats());
+            }
+        }
+        return stats;
+    }
+
+    private TwoLevelCache createCache(String name) {
+        return new TwoLevelCache(name, properties.getKeyPrefix(), properties.resolve(name), redisUtil);
+    }
+}
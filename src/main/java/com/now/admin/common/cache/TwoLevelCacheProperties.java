@@ -0,0 +1,68 @@
+package com.now.admin.common.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 二级缓存配置
+ * cache.defaults 为所有缓存的默认值，cache.specs.{name} 按缓存名覆盖，未配置的项沿用默认值
+ */
+@Data
+@ConfigurationProperties(prefix = "cache")
+public class TwoLevelCacheProperties {
+
+    /**
+     * Redis key前缀，完整key为 {keyPrefix}{缓存名}::{key}
+     */
+    private String keyPrefix = "cache:";
+
+    /**
+     * 默认配置
+     */
+    private Spec defaults = new Spec(10000L, Duration.ofSeconds(30), Duration.ofHours(2));
+
+    /**
+     * 按缓存名的配置
+     */
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    /**
+     * 获取缓存的最终配置
+     */
+    public Spec resolve(String name) {
+        Spec spec = specs.get(name);
+        if (spec == null) {
+            return defaults;
+        }
+        return new Spec(spec.getLocalSize() != null ? spec.getLocalSize() : defaults.getLocalSize(),
+                spec.getLocalTtl() != null ? spec.getLocalTtl() : defaults.getLocalTtl(),
+                spec.getRemoteTtl() != null ? spec.getRemoteTtl() : defaults.getRemoteTtl());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Spec {
+
+        /**
+         * 本地缓存最大条目数
+         */
+        private Long localSize;
+
+        /**
+         * 本地缓存存活时间，也是其他节点修改后本节点的最大延迟
+         */
+        private Duration localTtl;
+
+        /**
+         * Redis中的过期时间
+         */
+        private Duration remoteTtl;
+    }
+}
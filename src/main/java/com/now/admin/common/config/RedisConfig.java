@@ -1,11 +1,15 @@
 package com.now.admin.common.config;
 
-import jakarta.annotation.Resource;
+import com.now.admin.common.cache.TwoLevelCacheManager;
+import com.now.admin.common.cache.TwoLevelCacheProperties;
+import com.now.admin.common.serializer.CompactRedisSerializer;
+import com.now.admin.common.serializer.ValueCodec;
+import com.now.admin.common.util.RedisUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
@@ -15,10 +19,11 @@ import tools.jackson.databind.json.JsonMapper;
 import tools.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import tools.jackson.databind.jsontype.PolymorphicTypeValidator;
 
-import java.util.Collections;
+import java.util.List;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
 public class RedisConfig {
 
     private final JsonMapper jsonMapper;
@@ -37,8 +42,20 @@ public class RedisConfig {
                 .build();
     }
 
+    /**
+     * Redis值序列化器
+     * 已注册编解码器的类型写为紧凑二进制，其他类型写为带类型信息的JSON；
+     * redis.codec.binary 为false时只写JSON（滚动发布期间旧节点无法读取二进制数据），两种格式都可以读取
+     */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(LettuceConnectionFactory factory) {
+    public CompactRedisSerializer redisValueSerializer(List<ValueCodec<?>> codecs,
+                                                       @Value("${redis.codec.binary:true}") boolean binaryEnabled) {
+        return new CompactRedisSerializer(new GenericJacksonJsonRedisSerializer(jsonMapper), codecs, binaryEnabled);
+    }
+
+    @Bean
+    public RedisTemplate<String, Object> redisTemplate(LettuceConnectionFactory factory,
+                                                       CompactRedisSerializer redisValueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(factory);
 
@@ -46,26 +63,21 @@ public class RedisConfig {
         template.setKeySerializer(stringSerializer);
         template.setHashKeySerializer(stringSerializer);
 
-        GenericJacksonJsonRedisSerializer serializer =
-                new GenericJacksonJsonRedisSerializer(jsonMapper);
-
-        template.setValueSerializer(serializer);
-        template.setHashValueSerializer(serializer);
+        template.setValueSerializer(redisValueSerializer);
+        template.setHashValueSerializer(redisValueSerializer);
         template.afterPropertiesSet();
 
         return template;
     }
 
-    // ==========================
-    // Spring Cache 最新配置
-    // ==========================
-//    @Bean
-    public RedisCacheManager cacheManager(LettuceConnectionFactory factory) {
-        return RedisCacheManager.builder(factory)
-                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig())
-                .transactionAware()
-                .withInitialCacheConfigurations(Collections.singletonMap("predefined",
-                        RedisCacheConfiguration.defaultCacheConfig().disableCachingNullValues()))
-                .build();
+    /**
+     * Spring Cache：本地缓存 + Redis 二级缓存，各缓存的容量和过期时间见 cache.specs
+     * 事务中的写入和清除在提交后执行
+     */
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisUtil redisUtil, TwoLevelCacheProperties cacheProperties) {
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisUtil, cacheProperties);
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
     }
 }
@@ -1,5 +1,6 @@
 package com.now.admin.common.config;
 
+import com.now.admin.common.constant.JwtAlgorithmEnum;
 import com.now.admin.common.exception.InnerCommonException;
 import com.now.admin.common.util.RsaUtil;
 import jakarta.annotation.PostConstruct;
@@ -12,8 +13,14 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.Key;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * 密钥配置类
@@ -22,6 +29,16 @@ import java.security.PublicKey;
  * 2. 外部文件（推荐生产环境）
  * 3. 配置文件（开发测试环境）
  *
+ * JWT签名算法由 secret.jwt.algorithm 指定（RS256 / ES256 / EdDSA / HS256），
+ * 签名密钥按同样的优先级从 SECRET_JWT_PRIVATE_KEY、jwt_private_key.pem、secret.jwt.private-key 加载；
+ * 未单独配置签名密钥且算法为RS256时，沿用上面的RSA密钥对
+ *
+ * 签名密钥以密钥环（{@link SigningKeyRing}）的形式维护，支持不停机轮换：
+ * 1. 将新公钥以 public_key_*.pem（单独配置签名密钥时为 jwt_public_key_*.pem）放入密钥目录，
+ *    并在所有节点调用 reloadKeys，预发布验签公钥
+ * 2. 替换私钥、公钥文件后再次调用 reloadKeys，切换签名密钥
+ * 3. 旧密钥保留用于验签，超过 key-retention 后自动退役，已签发的Token自然过期，无需重新登录
+ *
  * @author zhaixinwei
  * @date 2025/12/25
  */
@@ -53,6 +70,30 @@ public class SecretKeyConfig {
     @Value("${secret.use-external-file:false}")
     private boolean useExternalFile;
 
+    /**
+     * JWT签名算法
+     */
+    @Value("${secret.jwt.algorithm:RS256}")
+    private String jwtAlgorithmCode;
+
+    /**
+     * 从配置文件读取的JWT签名私钥（对称算法为密钥本身）
+     */
+    @Value("${secret.jwt.private-key:}")
+    private String configJwtPrivateKey;
+
+    /**
+     * 从配置文件读取的JWT验签公钥
+     */
+    @Value("${secret.jwt.public-key:}")
+    private String configJwtPublicKey;
+
+    /**
+     * 被替换的签名密钥继续用于验签的时长，应不小于Token的最长有效期
+     */
+    @Value("${secret.key-retention:30d}")
+    private Duration keyRetention;
+
     // Getter方法
     /**
      * 最终使用的私钥
@@ -72,6 +113,23 @@ public class SecretKeyConfig {
     @Getter
     private PublicKey publicKey;
 
+    /**
+     * JWT签名算法
+     */
+    @Getter
+    private JwtAlgorithmEnum jwtAlgorithm;
+
+    /**
+     * 签名密钥环
+     */
+    @Getter
+    private volatile SigningKeyRing keyRing;
+
+    /**
+     * 是否单独配置了JWT签名密钥（否则沿用RSA密钥对）
+     */
+    private boolean dedicatedSigningKey;
+
     /**
      * 初始化密钥
      * 优先级：环境变量 > 外部文件 > 配置文件
@@ -79,45 +137,113 @@ public class SecretKeyConfig {
 
     @PostConstruct
     public void init() {
+        try {
+            loadKeyPair();
+            loadSigningKey();
+        } catch (Exception e) {
+            log.error("❌ 密钥加载失败", e);
+            throw new InnerCommonException("密钥加载失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 加载RSA密钥对
+     */
+    private void loadKeyPair() throws IOException {
         log.info("开始加载RSA密钥对...");
 
-        try {
-            // 1. 尝试从环境变量加载（最高优先级）
-            String envPrivateKey = System.getenv("SECRET_PRIVATE_KEY");
-            String envPublicKey = System.getenv("SECRET_PUBLIC_KEY");
+        // 1. 尝试从环境变量加载（最高优先级）
+        String envPrivateKey = System.getenv("SECRET_PRIVATE_KEY");
+        String envPublicKey = System.getenv("SECRET_PUBLIC_KEY");
 
-            if (envPrivateKey != null && envPublicKey != null) {
-                populateKeys(envPrivateKey, envPublicKey);
-                log.info("✅ 从环境变量加载密钥成功");
+        if (envPrivateKey != null && envPublicKey != null) {
+            populateKeys(envPrivateKey, envPublicKey);
+            log.info("✅ 从环境变量加载密钥成功");
+            return;
+        }
+
+        // 2. 尝试从外部文件加载（推荐生产环境）
+        if (useExternalFile) {
+            try {
+                String privateKey = loadKeyFromFile(keyFilePath + "/private_key.pem");
+                String publicKey = loadKeyFromFile(keyFilePath + "/public_key.pem");
+                populateKeys(privateKey, publicKey);
+                log.info("✅ 从外部文件加载密钥成功: {}", keyFilePath);
                 return;
+            } catch (Exception e) {
+                log.warn("⚠️ 从外部文件加载密钥失败，尝试使用配置文件: {}", e.getMessage());
             }
+        }
 
-            // 2. 尝试从外部文件加载（推荐生产环境）
-            if (useExternalFile) {
-                try {
-                    String privateKey = loadKeyFromFile(keyFilePath + "/private_key.pem");
-                    String publicKey = loadKeyFromFile(keyFilePath + "/public_key.pem");
-                    populateKeys(privateKey, publicKey);
-                    log.info("✅ 从外部文件加载密钥成功: {}", keyFilePath);
-                    return;
-                } catch (Exception e) {
-                    log.warn("⚠️ 从外部文件加载密钥失败，尝试使用配置文件: {}", e.getMessage());
-                }
-            }
+        // 3. 使用配置文件中的密钥（开发测试环境）
+        if (configPrivateKey != null && !configPrivateKey.isEmpty()) {
+            populateKeys(configPrivateKey, configPublicKey);
+            log.info("✅ 从配置文件加载密钥成功");
+            return;
+        }
 
-            // 3. 使用配置文件中的密钥（开发测试环境）
-            if (configPrivateKey != null && !configPrivateKey.isEmpty()) {
-                populateKeys(configPrivateKey, configPublicKey);
-                log.info("✅ 从配置文件加载密钥成功");
-                return;
-            }
+        throw new InnerCommonException("❌ 无法加载RSA密钥对，请检查配置！");
+    }
 
-            throw new InnerCommonException("❌ 无法加载RSA密钥对，请检查配置！");
+    /**
+     * 加载JWT签名密钥并放入密钥环
+     * 优先级：环境变量 > 外部文件 > 配置文件 > RSA密钥对（仅RS256）
+     */
+    private void loadSigningKey() throws IOException {
+        jwtAlgorithm = JwtAlgorithmEnum.fromCode(jwtAlgorithmCode);
+        log.info("开始加载JWT签名密钥，算法: {}", jwtAlgorithm.getCode());
 
-        } catch (Exception e) {
-            log.error("❌ 密钥加载失败", e);
-            throw new InnerCommonException("密钥加载失败: " + e.getMessage());
+        String[] keyPair = loadSigningKeyPair();
+        dedicatedSigningKey = keyPair != null;
+        SigningKeyRing.SigningKey signingKey;
+        if (dedicatedSigningKey) {
+            String verifyKey = jwtAlgorithm.isSymmetric() ? keyPair[0] : keyPair[1];
+            signingKey = SigningKeyRing.SigningKey.of(jwtAlgorithm.parseSignKey(keyPair[0]),
+                    jwtAlgorithm.parseVerifyKey(verifyKey));
+        } else if (jwtAlgorithm == JwtAlgorithmEnum.RS256) {
+            signingKey = SigningKeyRing.SigningKey.of(privateKey, publicKey);
+        } else {
+            throw new InnerCommonException("❌ 未配置" + jwtAlgorithm.getCode() + "签名密钥，请检查配置！");
+        }
+
+        // 新密钥加入密钥环，旧密钥保留至退役时间
+        this.keyRing = keyRing == null
+                ? SigningKeyRing.of(signingKey)
+                : keyRing.rotate(signingKey, Instant.now().plus(keyRetention));
+        if (useExternalFile) {
+            populatePublishedKeys();
         }
+        log.info("✅ JWT签名密钥加载成功: {}", keyRing.getActiveKid());
+    }
+
+    /**
+     * 读取单独配置的JWT签名密钥
+     *
+     * @return [签名私钥, 验签公钥]，未配置时返回null；对称算法只有第一项
+     */
+    private String[] loadSigningKeyPair() {
+        boolean symmetric = jwtAlgorithm.isSymmetric();
+        String envPrivateKey = System.getenv("SECRET_JWT_PRIVATE_KEY");
+        String envPublicKey = System.getenv("SECRET_JWT_PUBLIC_KEY");
+        if (envPrivateKey != null && (symmetric || envPublicKey != null)) {
+            return new String[]{envPrivateKey, envPublicKey};
+        }
+
+        if (useExternalFile) {
+            try {
+                String privateKey = loadKeyFromFile(keyFilePath + "/jwt_private_key.pem");
+                String publicKey = symmetric ? null : loadKeyFromFile(keyFilePath + "/jwt_public_key.pem");
+                return new String[]{privateKey, publicKey};
+            } catch (IOException e) {
+                log.debug("未找到JWT签名密钥文件: {}", e.getMessage());
+            }
+        }
+
+        if (configJwtPrivateKey != null && !configJwtPrivateKey.isEmpty()
+                && (symmetric || (configJwtPublicKey != null && !configJwtPublicKey.isEmpty()))) {
+            return new String[]{configJwtPrivateKey, configJwtPublicKey};
+        }
+        return null;
     }
 
     /**
@@ -135,14 +261,16 @@ public class SecretKeyConfig {
      * 热更新密钥（从外部文件重新加载）
      * 可用于密钥轮换场景
      */
-    public void reloadKeys() throws InnerCommonException {
+    public synchronized void reloadKeys() throws InnerCommonException {
         log.info("🔄 开始热更新密钥...");
         if (useExternalFile) {
             try {
                 String privateKey = loadKeyFromFile(keyFilePath + "/private_key.pem");
                 String publicKey = loadKeyFromFile(keyFilePath + "/public_key.pem");
                 populateKeys(privateKey, publicKey);
-                log.info("✅ 密钥热更新成功");
+                loadSigningKey();
+                keyRing = keyRing.pruneRetired(Instant.now());
+                log.info("✅ 密钥热更新成功，当前密钥: {}，密钥环: {}", keyRing.getActiveKid(), keyRing.getKeys().keySet());
             } catch (Exception e) {
                 log.error("❌ 密钥热更新失败", e);
                 throw new InnerCommonException("密钥热更新失败: " + e.getMessage());
@@ -159,4 +287,27 @@ public class SecretKeyConfig {
         this.publicKey = RsaUtil.getPublicKey(publicKey);
     }
 
+    /**
+     * 加载预发布的验签公钥（密钥目录下的 public_key_*.pem 或 jwt_public_key_*.pem）
+     * 公钥的算法按内容识别，算法迁移期间新旧算法的公钥可以同时存在
+     */
+    private void populatePublishedKeys() throws IOException {
+        Path dir = Paths.get(keyFilePath);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        String pattern = (dedicatedSigningKey ? "jwt_" : "") + "public_key_.+\\.pem";
+        List<SigningKeyRing.SigningKey> publishedKeys = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().matches(pattern)).toList()) {
+                String keyStr = loadKeyFromFile(file.toString());
+                Key verifyKey = jwtAlgorithm.isSymmetric()
+                        ? jwtAlgorithm.parseVerifyKey(keyStr)
+                        : JwtAlgorithmEnum.parseAnyPublicKey(keyStr);
+                publishedKeys.add(SigningKeyRing.SigningKey.published(verifyKey));
+            }
+        }
+        this.keyRing = keyRing.withPublishedKeys(publishedKeys);
+    }
+
 }
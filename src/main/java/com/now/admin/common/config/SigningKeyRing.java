@@ -0,0 +1,187 @@
+package com.now.admin.common.config;
+
+import com.now.admin.common.exception.InnerCommonException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * 签名密钥环
+ * 不可变快照，同时持有多个版本的签名密钥，按kid（密钥ID）查找验签密钥；
+ * 密钥轮换时生成新的快照整体替换，不影响正在使用旧快照的请求
+ *
+ * 密钥状态：
+ * 1. 当前密钥：用于签发新Token，同时用于验签
+ * 2. 预发布密钥：只有验签密钥，提前下发到所有节点，切换后其他节点签发的Token也能通过验签
+ * 3. 退役密钥：被替换的旧密钥，只用于验签，到达退役时间后失效
+ */
+@Getter
+public class SigningKeyRing {
+
+    /**
+     * 当前签名密钥ID
+     */
+    private final String activeKid;
+
+    /**
+     * 未携带kid的历史Token使用的密钥ID（启动时加载的密钥）
+     */
+    private final String legacyKid;
+
+    /**
+     * 全部密钥，kid -> 密钥
+     */
+    private final Map<String, SigningKey> keys;
+
+    private SigningKeyRing(String activeKid, String legacyKid, Map<String, SigningKey> keys) {
+        this.activeKid = activeKid;
+        this.legacyKid = legacyKid;
+        this.keys = Collections.unmodifiableMap(keys);
+    }
+
+    /**
+     * 以初始密钥创建密钥环
+     */
+    public static SigningKeyRing of(SigningKey activeKey) {
+        Map<String, SigningKey> keys = new LinkedHashMap<>();
+        keys.put(activeKey.getKid(), activeKey);
+        return new SigningKeyRing(activeKey.getKid(), activeKey.getKid(), keys);
+    }
+
+    /**
+     * 当前签名密钥
+     */
+    public SigningKey getActiveKey() {
+        return keys.get(activeKid);
+    }
+
+    /**
+     * 查找验签密钥，退役时间已到的密钥视为不存在
+     *
+     * @param kid 密钥ID，为空时使用历史密钥
+     * @return Optional<SigningKey>
+     */
+    public Optional<SigningKey> findVerifyKey(String kid) {
+        SigningKey signingKey = keys.get(kid == null ? legacyKid : kid);
+        if (signingKey == null || signingKey.isRetired(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(signingKey);
+    }
+
+    /**
+     * 切换当前签名密钥，旧密钥保留用于验签直到退役时间
+     *
+     * @param newActiveKey 新的签名密钥
+     * @param retireAt     旧密钥退役时间
+     * @return 新的密钥环
+     */
+    public SigningKeyRing rotate(SigningKey newActiveKey, Instant retireAt) {
+        if (newActiveKey.getKid().equals(activeKid)) {
+            return this;
+        }
+        Map<String, SigningKey> newKeys = new LinkedHashMap<>(keys);
+        SigningKey oldActiveKey = getActiveKey();
+        newKeys.put(activeKid, new SigningKey(activeKid, null, oldActiveKey.getVerifyKey(), retireAt));
+        newKeys.put(newActiveKey.getKid(), newActiveKey);
+        return new SigningKeyRing(newActiveKey.getKid(), legacyKid, newKeys);
+    }
+
+    /**
+     * 替换预发布的验签密钥
+     *
+     * @param publishedKeys 预发布密钥
+     * @return 新的密钥环
+     */
+    public SigningKeyRing withPublishedKeys(Collection<SigningKey> publishedKeys) {
+        Map<String, SigningKey> newKeys = new LinkedHashMap<>();
+        keys.forEach((kid, key) -> {
+            if (!key.isPublished() || kid.equals(activeKid)) {
+                newKeys.put(kid, key);
+            }
+        });
+        for (SigningKey publishedKey : publishedKeys) {
+            newKeys.putIfAbsent(publishedKey.getKid(), publishedKey);
+        }
+        return new SigningKeyRing(activeKid, legacyKid, newKeys);
+    }
+
+    /**
+     * 移除已退役的密钥
+     *
+     * @param now 当前时间
+     * @return 新的密钥环
+     */
+    public SigningKeyRing pruneRetired(Instant now) {
+        Map<String, SigningKey> newKeys = new LinkedHashMap<>(keys);
+        newKeys.values().removeIf(key -> key.isRetired(now));
+        return newKeys.size() == keys.size() ? this : new SigningKeyRing(activeKid, legacyKid, newKeys);
+    }
+
+    /**
+     * 根据验签密钥计算密钥ID，同一密钥在所有节点上得到相同的kid
+     *
+     * @param verifyKey 验签密钥
+     * @return 密钥SHA-256指纹的前16位十六进制
+     */
+    public static String keyId(Key verifyKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(verifyKey.getEncoded());
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new InnerCommonException("密钥ID计算失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 单个版本的签名密钥
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SigningKey {
+
+        /**
+         * 密钥ID
+         */
+        private final String kid;
+
+        /**
+         * 签名密钥（非对称算法为私钥），只用于验签的密钥为null
+         */
+        private final Key signKey;
+
+        /**
+         * 验签密钥（非对称算法为公钥）
+         */
+        private final Key verifyKey;
+
+        /**
+         * 退役时间，为null时长期有效
+         */
+        private final Instant retireAt;
+
+        public static SigningKey of(Key signKey, Key verifyKey) {
+            return new SigningKey(keyId(verifyKey), signKey, verifyKey, null);
+        }
+
+        public static SigningKey published(Key verifyKey) {
+            return new SigningKey(keyId(verifyKey), null, verifyKey, null);
+        }
+
+        public boolean isRetired(Instant now) {
+            return retireAt != null && !now.isBefore(retireAt);
+        }
+
+        /**
+         * 是否为预发布的验签密钥
+         */
+        public boolean isPublished() {
+            return signKey == null && retireAt == null;
+        }
+    }
+}
@@ -15,7 +15,9 @@ public enum AppStatusEnum {
     METHOD_NOT_ALLOWED(405, "方法不允许"),
     VALIDATE_TOKEN_FAIL(406, "Token验证失败"),
     TOKEN_EXPIRED(407, "Token已过期"),
+    TOO_MANY_REQUESTS(429, "请求过于频繁，请稍后重试"),
     SERVER_ERROR(500, "服务器内部错误"),
+    SERVICE_UNAVAILABLE(503, "服务暂不可用，请稍后重试"),
     OTHER_ERROR(600, "其他错误");
 
 
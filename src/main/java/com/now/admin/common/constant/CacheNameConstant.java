@@ -0,0 +1,12 @@
+package com.now.admin.common.constant;
+
+/**
+ * Spring Cache 缓存名称，各缓存的容量和过期时间在 cache.specs.{name} 下配置
+ */
+public interface CacheNameConstant {
+
+    /**
+     * 系统用户，key为用户ID
+     */
+    final String SYS_USER = "sys:user";
+}
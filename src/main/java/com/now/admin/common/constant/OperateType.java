@@ -40,4 +40,9 @@ public class OperateType {
      */
     public static final String IMPORT = "import";
 
+    /**
+     * 登录
+     */
+    public static final String LOGIN = "login";
+
 }
@@ -3,4 +3,45 @@ package com.now.admin.common.constant;
 public interface RedisKeyConstant {
 
     final String LOGIN_USER_PREFIX = "login:user:";
+
+    /**
+     * 登录会话hash中刷新Token摘要的字段前缀，完整字段为 refresh:{loginFlag}
+     */
+    final String LOGIN_REFRESH_FIELD_PREFIX = "refresh:";
+
+    /**
+     * 登录会话hash中会话过期时间（毫秒时间戳）的字段前缀，完整字段为 expire:{loginFlag}
+     */
+    final String LOGIN_EXPIRE_FIELD_PREFIX = "expire:";
+
+    /**
+     * 会话清理索引zset，成员为用户ID，分值为该用户最早过期的会话的过期时间
+     */
+    final String LOGIN_SWEEP_KEY = "login:sweep";
+
+    /**
+     * 角色反向索引set，完整key为 login:role:{roleFlag}，成员为持有该角色且有会话的用户ID；
+     * 登录时写入，最后一个会话注销或被清理、用户被批量下线时移除，可能包含会话已过期的用户
+     */
+    final String LOGIN_ROLE_INDEX_PREFIX = "login:role:";
+
+    /**
+     * 登录会话hash中记录用户已写入的角色反向索引key的字段，值为JSON数组
+     */
+    final String LOGIN_ROLE_INDEX_FIELD = "index:roles";
+
+    /**
+     * 共享权限集，完整key为 login:perm-set:{id}
+     */
+    final String PERM_SET_PREFIX = "login:perm-set:";
+
+    /**
+     * 接口限流令牌桶，完整key为 rate:limit:{keyPrefix}:{用户ID / IP / global}，值为令牌桶的理论到达时间（毫秒）
+     */
+    final String RATE_LIMIT_PREFIX = "rate:limit:";
+
+    /**
+     * 角色版本号hash，字段为角色ID，另有全局版本字段 *
+     */
+    final String ROLE_VERSION_KEY = "sys:role:version";
 }
@@ -0,0 +1,37 @@
+package com.now.admin.common.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 刷新Token模式枚举
+ */
+@Getter
+@AllArgsConstructor
+public enum RefreshTokenModeEnum {
+
+    /**
+     * 签名的JWT，无需服务端存储，每次登录多一次签名
+     */
+    JWT("jwt", "签名JWT"),
+
+    /**
+     * 随机不透明句柄，摘要存储在登录会话旁，刷新时原子轮换并检测重放
+     */
+    OPAQUE("opaque", "不透明句柄");
+
+    private final String code;
+    private final String description;
+
+    /**
+     * 根据code获取枚举
+     */
+    public static RefreshTokenModeEnum fromCode(String code) {
+        for (RefreshTokenModeEnum mode : values()) {
+            if (mode.getCode().equalsIgnoreCase(code)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("未知的刷新Token模式: " + code);
+    }
+}
@@ -1,15 +1,21 @@
 package com.now.admin.common.exception;
 
+import com.now.admin.common.constant.AppStatusEnum;
 import com.now.admin.common.domain.Result;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 /**
  * 全局异常处理
  */
 @Slf4j
-@ControllerAdvice
+@RestControllerAdvice
 public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
@@ -25,4 +31,24 @@ public class GlobalExceptionHandler {
         log.error("{}:{}", code, msg);
         return Result.fail(code, msg);
     }
+
+    /**
+     * 超出限流（@RateLimit），data为重试等待秒数，同时写入Retry-After响应头
+     */
+    @ExceptionHandler(RateLimitException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    private Result<Long> handleRateLimitException(RateLimitException e, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return new Result<>(e.getCode(), e.getMessage(), e.getRetryAfterSeconds());
+    }
+
+    /**
+     * 方法级权限校验失败（@RequiresPerms）
+     */
+    @ExceptionHandler(AccessDeniedException.class)
+    @ResponseStatus(HttpStatus.FORBIDDEN)
+    private Result<String> handleAccessDeniedException(AccessDeniedException e) {
+        log.warn("{}:{}", AppStatusEnum.FORBIDDEN.getCode(), e.getMessage());
+        return Result.fail(AppStatusEnum.FORBIDDEN.getCode(), AppStatusEnum.FORBIDDEN.getMessage());
+    }
 }
@@ -0,0 +1,21 @@
+package com.now.admin.common.exception;
+
+import com.now.admin.common.constant.AppStatusEnum;
+import lombok.Getter;
+
+/**
+ * 请求超出限流
+ */
+public class RateLimitException extends CommonException {
+
+    /**
+     * 建议的重试等待时间（秒）
+     */
+    @Getter
+    private final long retryAfterSeconds;
+
+    public RateLimitException(long retryAfterSeconds) {
+        super(AppStatusEnum.TOO_MANY_REQUESTS.getCode(), "请求过于频繁，请" + retryAfterSeconds + "秒后重试");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.now.admin.common.exception;
+
+import com.now.admin.common.constant.AppStatusEnum;
+
+/**
+ * Redis不可用：熔断器打开时快速失败，或连接失败、命令超时
+ */
+public class RedisUnavailableException extends InnerCommonException {
+
+    public RedisUnavailableException() {
+        super(AppStatusEnum.SERVICE_UNAVAILABLE.getCode(), AppStatusEnum.SERVICE_UNAVAILABLE.getMessage());
+    }
+
+    public RedisUnavailableException(Throwable cause) {
+        this();
+        initCause(cause);
+    }
+}
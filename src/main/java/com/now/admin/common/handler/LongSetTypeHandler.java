@@ -0,0 +1,55 @@
+package com.now.admin.common.handler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
+
+import java.sql.*;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 数据库整数数组（bigint[]）与 Set<Long> 互转
+ * 用于 array_agg 等聚合结果，null数组转为空集合，数组中的null元素被忽略
+ */
+@MappedTypes(Set.class)
+@MappedJdbcTypes(JdbcType.ARRAY)
+public class LongSetTypeHandler extends BaseTypeHandler<Set<Long>> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Set<Long> parameter, JdbcType jdbcType) throws SQLException {
+        ps.setArray(i, ps.getConnection().createArrayOf("bigint", parameter.toArray()));
+    }
+
+    @Override
+    public Set<Long> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return toSet(rs.getArray(columnName));
+    }
+
+    @Override
+    public Set<Long> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return toSet(rs.getArray(columnIndex));
+    }
+
+    @Override
+    public Set<Long> getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return toSet(cs.getArray(columnIndex));
+    }
+
+    private Set<Long> toSet(Array array) throws SQLException {
+        Set<Long> values = new HashSet<>();
+        if (array == null) {
+            return values;
+        }
+        try {
+            Arrays.stream((Object[]) array.getArray())
+                    .filter(value -> value != null)
+                    .forEach(value -> values.add(((Number) value).longValue()));
+        } finally {
+            array.free();
+        }
+        return values;
+    }
+}
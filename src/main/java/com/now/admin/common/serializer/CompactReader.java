@@ -0,0 +1,96 @@
+package com.now.admin.common.serializer;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 紧凑二进制读取器，与 {@link CompactWriter} 对应
+ */
+public class CompactReader {
+
+    private final byte[] buffer;
+
+    private int position;
+
+    public CompactReader(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    public int readByte() {
+        if (position >= buffer.length) {
+            throw new SerializationException("二进制数据不完整");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("变长整数格式错误");
+    }
+
+    public long readVarLong() {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new SerializationException("变长整数格式错误");
+    }
+
+    public Long readLong() {
+        return readByte() == 0 ? null : readVarLong();
+    }
+
+    public Integer readInt() {
+        return readByte() == 0 ? null : (int) readVarLong();
+    }
+
+    public String readString() {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.length - position) {
+            throw new SerializationException("二进制数据不完整");
+        }
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public Set<String> readStrings() {
+        int size = readVarInt() - 1;
+        if (size < 0) {
+            return null;
+        }
+        Set<String> values = HashSet.newHashSet(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    public LocalDateTime readDateTime() {
+        if (readByte() == 0) {
+            return null;
+        }
+        long epochSecond = readVarLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, readVarInt(), ZoneOffset.UTC);
+    }
+}
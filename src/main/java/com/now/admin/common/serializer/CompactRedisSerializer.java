@@ -0,0 +1,124 @@
+package com.now.admin.common.serializer;
+
+import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Redis值序列化器
+ * 已注册编解码器的类型（会话、权限集等）写为紧凑二进制：[0xC1][类型ID][版本][数据]，
+ * 不携带类名和字段名；其他类型仍按带类型信息的JSON写入。
+ * 读取时按首字节区分，0xC1不会出现在JSON开头，两种格式的数据可以同时存在
+ *
+ * 字符串、数字等基础类型始终为JSON，Lua脚本中按JSON编码比较的值不受影响
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 二进制格式标识，不是合法的UTF-8首字节
+     */
+    public static final byte MAGIC = (byte) 0xC1;
+
+    private static final int HEADER_LENGTH = 3;
+
+    /**
+     * 已占用的类型ID：1 LoginUserDetail，2 PermissionSet，4 SysUser；
+     * 3 曾分配给登录设备信息（会话中该字段不写入Redis，编解码器已删除），保留不再使用
+     */
+    private static final int RESERVED_TYPE_ID = 3;
+
+    private final GenericJacksonJsonRedisSerializer jsonSerializer;
+
+    private final Map<Class<?>, ValueCodec<?>> codecsByType = new HashMap<>();
+
+    private final ValueCodec<?>[] codecsById = new ValueCodec<?>[256];
+
+    /**
+     * 是否写入二进制格式，关闭时只写JSON，仍能读取二进制数据（用于滚动发布）
+     */
+    private final boolean binaryEnabled;
+
+    public CompactRedisSerializer(GenericJacksonJsonRedisSerializer jsonSerializer,
+                                  Collection<? extends ValueCodec<?>> codecs, boolean binaryEnabled) {
+        this.jsonSerializer = jsonSerializer;
+        this.binaryEnabled = binaryEnabled;
+        for (ValueCodec<?> codec : codecs) {
+            int typeId = codec.typeId();
+            if (typeId < 1 || typeId > 255 || codec.version() < 1 || codec.version() > 255) {
+                throw new IllegalArgumentException("编解码器类型ID或版本超出范围: " + codec.type().getName());
+            }
+            if (typeId == RESERVED_TYPE_ID) {
+                throw new IllegalArgumentException("编解码器类型ID已保留: " + typeId);
+            }
+            if (codecsById[typeId] != null) {
+                throw new IllegalArgumentException("编解码器类型ID重复: " + typeId);
+            }
+            codecsById[typeId] = codec;
+            codecsByType.put(codec.type(), codec);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        ValueCodec<Object> codec = binaryEnabled ? (ValueCodec<Object>) codecsByType.get(value.getClass()) : null;
+        if (codec == null) {
+            return jsonSerializer.serialize(value);
+        }
+        CompactWriter writer = new CompactWriter(128);
+        writer.writeByte(MAGIC).writeByte(codec.typeId()).writeByte(codec.version());
+        codec.write(value, writer);
+        return writer.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return jsonSerializer.deserialize(bytes);
+        }
+        return readBinary(bytes);
+    }
+
+    /**
+     * 按指定类型反序列化，JSON数据按该类型解析
+     */
+    public <T> T deserialize(byte[] bytes, Class<T> type) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return jsonSerializer.deserialize(bytes, type);
+        }
+        Object value = readBinary(bytes);
+        if (!type.isInstance(value)) {
+            throw new SerializationException("类型不匹配，期望" + type.getName() + "，实际" + value.getClass().getName());
+        }
+        return type.cast(value);
+    }
+
+    private Object readBinary(byte[] bytes) {
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("二进制数据不完整");
+        }
+        int typeId = bytes[1] & 0xFF;
+        int version = bytes[2] & 0xFF;
+        ValueCodec<?> codec = codecsById[typeId];
+        if (codec == null) {
+            throw new SerializationException("未知的二进制类型ID: " + typeId);
+        }
+        if (version > codec.version()) {
+            throw new SerializationException("不支持的" + codec.type().getSimpleName() + "编码版本: " + version);
+        }
+        return codec.read(new CompactReader(bytes, HEADER_LENGTH), version);
+    }
+}
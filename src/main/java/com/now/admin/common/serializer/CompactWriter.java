@@ -0,0 +1,118 @@
+package com.now.admin.common.serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 紧凑二进制写入器
+ * 整数按变长编码，可空值在长度或标记中表示null，不写入字段名和类名
+ */
+public class CompactWriter {
+
+    private byte[] buffer;
+
+    private int position;
+
+    public CompactWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    public CompactWriter writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * 无符号变长整数
+     */
+    public CompactWriter writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * 有符号变长整数（zigzag）
+     */
+    public CompactWriter writeVarLong(long value) {
+        ensureCapacity(10);
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        buffer[position++] = (byte) zigzag;
+        return this;
+    }
+
+    public CompactWriter writeLong(Long value) {
+        if (value == null) {
+            return writeByte(0);
+        }
+        return writeByte(1).writeVarLong(value);
+    }
+
+    public CompactWriter writeInt(Integer value) {
+        if (value == null) {
+            return writeByte(0);
+        }
+        return writeByte(1).writeVarLong(value);
+    }
+
+    /**
+     * UTF-8字符串，长度加1写入，0表示null
+     */
+    public CompactWriter writeString(String value) {
+        if (value == null) {
+            return writeVarInt(0);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+        return this;
+    }
+
+    /**
+     * 字符串集合，元素数加1写入，0表示null
+     */
+    public CompactWriter writeStrings(Collection<String> values) {
+        if (values == null) {
+            return writeVarInt(0);
+        }
+        writeVarInt(values.size() + 1);
+        for (String value : values) {
+            writeString(value);
+        }
+        return this;
+    }
+
+    /**
+     * 本地时间，按UTC的秒数和纳秒写入，不做时区换算
+     */
+    public CompactWriter writeDateTime(LocalDateTime value) {
+        if (value == null) {
+            return writeByte(0);
+        }
+        return writeByte(1).writeVarLong(value.toEpochSecond(ZoneOffset.UTC)).writeVarInt(value.getNano());
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.now.admin.common.serializer;
+
+/**
+ * Redis值的紧凑二进制编解码器
+ * 每种类型对应一个编解码器，声明为Spring Bean后自动注册到 {@link CompactRedisSerializer}；
+ * 类型ID写入每个值的头部，一经使用不能修改或复用；
+ * 字段变化时递增版本号，read需要继续兼容Redis中尚未过期的旧版本数据
+ *
+ * @param <T> 值类型
+ */
+public interface ValueCodec<T> {
+
+    /**
+     * 值类型，只匹配该类本身，不匹配子类
+     */
+    Class<T> type();
+
+    /**
+     * 类型ID，1-255
+     */
+    int typeId();
+
+    /**
+     * 当前编码版本，1-255
+     */
+    int version();
+
+    /**
+     * 按当前版本写入
+     */
+    void write(T value, CompactWriter writer);
+
+    /**
+     * 读取指定版本的数据
+     */
+    T read(CompactReader reader, int version);
+}
@@ -0,0 +1,57 @@
+package com.now.admin.common.serializer.codec;
+
+import com.now.admin.common.serializer.CompactReader;
+import com.now.admin.common.serializer.CompactWriter;
+import com.now.admin.common.serializer.ValueCodec;
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import org.springframework.stereotype.Component;
+
+/**
+ * 登录用户编解码器
+ * 与JSON格式保存相同的内容：会话引用共享权限集时只保存权限集ID，否则保存角色和权限
+ */
+@Component
+public class LoginUserDetailCodec implements ValueCodec<LoginUserDetail> {
+
+    @Override
+    public Class<LoginUserDetail> type() {
+        return LoginUserDetail.class;
+    }
+
+    @Override
+    public int typeId() {
+        return 1;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(LoginUserDetail value, CompactWriter writer) {
+        boolean shared = value.getPermSetId() != null;
+        writer.writeLong(value.getId())
+                .writeString(value.getUsername())
+                .writeString(value.getAvatar())
+                .writeInt(value.getStatus())
+                .writeDateTime(value.getLoginTime())
+                .writeString(value.getPermSetId())
+                .writeStrings(shared ? null : value.getRoles())
+                .writeStrings(shared ? null : value.getPerms());
+    }
+
+    @Override
+    public LoginUserDetail read(CompactReader reader, int version) {
+        LoginUserDetail loginUser = new LoginUserDetail();
+        loginUser.setId(reader.readLong());
+        loginUser.setUsername(reader.readString());
+        loginUser.setAvatar(reader.readString());
+        loginUser.setStatus(reader.readInt());
+        loginUser.setLoginTime(reader.readDateTime());
+        loginUser.setPermSetId(reader.readString());
+        loginUser.setRoles(reader.readStrings());
+        loginUser.setPerms(reader.readStrings());
+        return loginUser;
+    }
+}
@@ -0,0 +1,41 @@
+package com.now.admin.common.serializer.codec;
+
+import com.now.admin.common.serializer.CompactReader;
+import com.now.admin.common.serializer.CompactWriter;
+import com.now.admin.common.serializer.ValueCodec;
+import com.now.admin.service.auth.domain.PermissionSet;
+import org.springframework.stereotype.Component;
+
+/**
+ * 共享权限集编解码器，权限位图只在本地有效，不写入
+ */
+@Component
+public class PermissionSetCodec implements ValueCodec<PermissionSet> {
+
+    @Override
+    public Class<PermissionSet> type() {
+        return PermissionSet.class;
+    }
+
+    @Override
+    public int typeId() {
+        return 2;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(PermissionSet value, CompactWriter writer) {
+        writer.writeString(value.getId())
+                .writeStrings(value.getRoles())
+                .writeStrings(value.getPerms());
+    }
+
+    @Override
+    public PermissionSet read(CompactReader reader, int version) {
+        return new PermissionSet(reader.readString(), reader.readStrings(), reader.readStrings());
+    }
+}
@@ -0,0 +1,59 @@
+package com.now.admin.common.serializer.codec;
+
+import com.now.admin.common.serializer.CompactReader;
+import com.now.admin.common.serializer.CompactWriter;
+import com.now.admin.common.serializer.ValueCodec;
+import com.now.admin.service.sys.domain.SysUser;
+import org.springframework.stereotype.Component;
+
+/**
+ * 系统用户编解码器
+ */
+@Component
+public class SysUserCodec implements ValueCodec<SysUser> {
+
+    @Override
+    public Class<SysUser> type() {
+        return SysUser.class;
+    }
+
+    @Override
+    public int typeId() {
+        return 4;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(SysUser value, CompactWriter writer) {
+        writer.writeLong(value.getId())
+                .writeString(value.getUsername())
+                .writeString(value.getAvatar())
+                .writeString(value.getGender())
+                .writeInt(value.getStatus())
+                .writeInt(value.getDeletedFlag())
+                .writeDateTime(value.getBirthday())
+                .writeInt(value.getLunarCalendar())
+                .writeDateTime(value.getCreatedTime())
+                .writeDateTime(value.getUpdatedTime());
+    }
+
+    @Override
+    public SysUser read(CompactReader reader, int version) {
+        SysUser sysUser = new SysUser();
+        sysUser.setId(reader.readLong());
+        sysUser.setUsername(reader.readString());
+        sysUser.setAvatar(reader.readString());
+        sysUser.setGender(reader.readString());
+        sysUser.setStatus(reader.readInt());
+        sysUser.setDeletedFlag(reader.readInt());
+        sysUser.setBirthday(reader.readDateTime());
+        sysUser.setLunarCalendar(reader.readInt());
+        sysUser.setCreatedTime(reader.readDateTime());
+        sysUser.setUpdatedTime(reader.readDateTime());
+        return sysUser;
+    }
+}
@@ -0,0 +1,71 @@
+package com.now.admin.common.task;
+
+import com.now.admin.common.cache.TwoLevelCacheManager;
+import com.now.admin.common.util.LocalRateLimiter;
+import com.now.admin.common.util.RedisCircuitBreaker;
+import com.now.admin.common.util.RedisRateLimiter;
+import com.now.admin.service.auth.service.impl.LoginSessionService;
+import com.now.admin.service.auth.service.impl.PasswordHashService;
+import com.now.admin.service.sys.service.impl.SysUserIdFilter;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 运行统计日志
+ * 定期输出bcrypt线程池、Redis熔断器、二级缓存、用户ID布隆过滤器、限流和会话缓存的统计，
+ * 用于观察线程池饱和、熔断、缓存命中率等运行状态；与上次输出相同的统计不再重复输出
+ */
+@Slf4j
+@Component
+public class RuntimeStatsReporter {
+
+    @Resource
+    private PasswordHashService passwordHashService;
+
+    @Resource
+    private RedisCircuitBreaker redisCircuitBreaker;
+
+    @Resource
+    private TwoLevelCacheManager cacheManager;
+
+    @Resource
+    private SysUserIdFilter sysUserIdFilter;
+
+    @Resource
+    private RedisRateLimiter redisRateLimiter;
+
+    @Resource
+    private LocalRateLimiter localRateLimiter;
+
+    @Resource
+    private LoginSessionService loginSessionService;
+
+    /**
+     * 上次输出的统计，key为统计名称
+     */
+    private final Map<String, Object> lastReported = new HashMap<>();
+
+    @Scheduled(fixedDelayString = "${monitor.stats.interval:60s}", initialDelayString = "${monitor.stats.interval:60s}")
+    public void report() {
+        report("bcrypt", passwordHashService.getStats());
+        report("redis-circuit-breaker", redisCircuitBreaker.getStats());
+        cacheManager.getStats().forEach((name, stats) -> report("cache:" + name, stats));
+        report("user-bloom-filter", sysUserIdFilter.getStats());
+        report("rate-limit-redis", redisRateLimiter.getStats());
+        report("rate-limit-local", localRateLimiter.getStats());
+        report("session-cache", loginSessionService.getSessionCacheStats());
+        report("session-degraded-hits", loginSessionService.getDegradedHits());
+    }
+
+    private void report(String name, Object stats) {
+        if (stats.equals(lastReported.put(name, stats))) {
+            return;
+        }
+        log.info("运行统计[{}] {}", name, stats);
+    }
+}
@@ -1,8 +1,72 @@
 package com.now.admin.common.task;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * 任务执行器
+ * 用于登录日志、设备信息解析等不影响响应结果的后台任务；
+ * 队列有界，队列满时丢弃任务并记录日志，不阻塞请求线程
  */
+@Slf4j
+@Component
 public class TaskExecutor {
 
+    /**
+     * 线程数
+     */
+    @Value("${task.executor.pool-size:2}")
+    private int poolSize;
+
+    /**
+     * 队列容量
+     */
+    @Value("${task.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "task-executor-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> log.warn("任务队列已满，丢弃任务"));
+    }
+
+    /**
+     * 提交任务，任务异常只记录日志
+     *
+     * @param task 任务
+     */
+    public void execute(Task task) {
+        executor.execute(() -> {
+            try {
+                task.task();
+            } catch (Exception e) {
+                log.error("任务执行失败: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("任务执行器关闭超时，剩余任务: {}", executor.getQueue().size());
+        }
+    }
 }
@@ -0,0 +1,293 @@
+package com.now.admin.common.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.now.admin.common.exception.RedisUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地优先的分层限流
+ * 每个节点从Redis令牌桶（RedisRateLimiter）中预取一部分令牌作为本地租约，请求只在本地扣减，不访问Redis；
+ * 定期把所有活跃key的租约在一个管道中批量同步：按上一周期的请求量补充令牌，空闲key归还未用完的令牌。
+ * 本地租约用完时由一个线程同步续租，同一key的其他线程等待结果，拒绝后在等待时间内直接本地拒绝
+ *
+ * 租约中的令牌已从全局令牌桶扣除，集群总放行数不会超过限流值，误差只在于令牌暂时留在某个节点上未被使用，
+ * 单个节点最多持有桶容量的 lease-ratio 比例；本地key按最大数量和空闲时间淘汰，空闲key的令牌在淘汰前已归还。
+ * 桶容量小于 min-lease-count 的key租约只有几个令牌，分散到各节点后反而容易误拒，直接访问Redis
+ *
+ * Redis不可用时放行，与 RedisRateLimiter 一致
+ */
+@Slf4j
+@Component
+public class LocalRateLimiter {
+
+    @Resource
+    private RedisRateLimiter redisRateLimiter;
+
+    /**
+     * 是否启用本地租约，关闭时每次请求都访问Redis
+     */
+    @Value("${rate-limit.local.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 单个节点一次最多租用桶容量的比例
+     */
+    @Value("${rate-limit.local.lease-ratio:0.1}")
+    private double leaseRatio;
+
+    /**
+     * 桶容量达到该值的key才使用本地租约
+     */
+    @Value("${rate-limit.local.min-lease-count:100}")
+    private int minLeaseCount;
+
+    /**
+     * 本地最多保留的限流key数
+     */
+    @Value("${rate-limit.local.max-keys:100000}")
+    private long maxKeys;
+
+    /**
+     * 限流key空闲多久后从本地移除
+     */
+    @Value("${rate-limit.local.idle-expire:2m}")
+    private Duration idleExpire;
+
+    private Cache<String, Bucket> buckets;
+
+    private final LongAdder localAllowed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder syncLeases = new LongAdder();
+
+    private final LongAdder batchSyncs = new LongAdder();
+
+    private final LongAdder failOpen = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpire)
+                .build();
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param key      限流key
+     * @param maxCount 时间窗口内的最大请求数，即桶容量
+     * @param seconds  时间窗口（秒），桶从空到满的时间
+     * @return 放行返回0，拒绝返回需要等待的毫秒数
+     */
+    public long tryAcquire(String key, int maxCount, int seconds) {
+        if (!enabled || maxCount < minLeaseCount) {
+            return redisRateLimiter.tryAcquire(key, maxCount, seconds);
+        }
+        Bucket bucket = buckets.get(key, k -> new Bucket(k, maxCount, seconds, Math.max(1, (long) (maxCount * leaseRatio))));
+        bucket.demand.increment();
+        if (bucket.tryConsume()) {
+            localAllowed.increment();
+            return 0;
+        }
+        long waitMillis = bucket.waitMillis();
+        if (waitMillis > 0) {
+            rejected.increment();
+            return waitMillis;
+        }
+        synchronized (bucket) {
+            // 等待期间其他线程可能已续租
+            if (bucket.tryConsume()) {
+                localAllowed.increment();
+                return 0;
+            }
+            waitMillis = bucket.waitMillis();
+            if (waitMillis == 0) {
+                try {
+                    bucket.apply(redisRateLimiter.lease(List.of(bucket.lease(bucket.maxLease, 0))).get(0));
+                } catch (RedisUnavailableException e) {
+                    failOpen.increment();
+                    return 0;
+                }
+                syncLeases.increment();
+                if (bucket.tryConsume()) {
+                    localAllowed.increment();
+                    return 0;
+                }
+                waitMillis = Math.max(1, bucket.waitMillis());
+            }
+        }
+        rejected.increment();
+        return waitMillis;
+    }
+
+    /**
+     * 批量同步租约：有请求的key按上一周期的请求量补足令牌，空闲key归还未用完的令牌
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.local.sync-interval:200ms}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        List<Bucket> targets = new ArrayList<>();
+        List<RedisRateLimiter.Lease> leases = new ArrayList<>();
+        for (Bucket bucket : buckets.asMap().values()) {
+            synchronized (bucket) {
+                long demand = bucket.demand.sumThenReset();
+                long requested = 0;
+                long refund = 0;
+                if (demand > 0) {
+                    long unused = Math.max(0, bucket.granted - bucket.consumed.sum());
+                    requested = Math.max(0, Math.min(bucket.maxLease, demand) - unused);
+                } else {
+                    refund = bucket.retract();
+                }
+                if (requested > 0 || refund > 0) {
+                    targets.add(bucket);
+                    leases.add(bucket.lease(requested, refund));
+                }
+            }
+        }
+        if (leases.isEmpty()) {
+            return;
+        }
+        List<Long> results;
+        try {
+            results = redisRateLimiter.lease(leases);
+        } catch (RedisUnavailableException e) {
+            // 归还失败的令牌留在Redis中，到期自然恢复，不会多放行
+            log.warn("限流租约同步失败，key数:{}，{}", leases.size(), e.getMessage());
+            return;
+        }
+        batchSyncs.increment();
+        for (int i = 0; i < targets.size(); i++) {
+            Bucket bucket = targets.get(i);
+            synchronized (bucket) {
+                bucket.apply(results.get(i));
+            }
+        }
+    }
+
+    /**
+     * 限流统计
+     */
+    public Stats getStats() {
+        return new Stats(localAllowed.sum(), rejected.sum(), syncLeases.sum(), batchSyncs.sum(), failOpen.sum(),
+                buckets.estimatedSize());
+    }
+
+    /**
+     * 单个限流key的本地租约
+     * granted、consumed 均为累计值，二者之差为剩余令牌；consumed 为分段计数，多线程扣减无锁、无竞争，
+     * 并发扣减可能短暂超出后回退，只会少放行
+     */
+    private static final class Bucket {
+
+        private final String key;
+
+        private final int maxCount;
+
+        private final int seconds;
+
+        private final long maxLease;
+
+        /**
+         * 累计租到的令牌数，只在持有锁时修改
+         */
+        private volatile long granted;
+
+        /**
+         * 累计扣减的令牌数
+         */
+        private final LongAdder consumed = new LongAdder();
+
+        /**
+         * 本周期的请求数（含被拒绝的），作为下一周期的租约大小
+         */
+        private final LongAdder demand = new LongAdder();
+
+        /**
+         * 全局令牌桶为空时，可重试的时间（System.nanoTime），在此之前直接拒绝
+         */
+        private volatile long retryAt;
+
+        private Bucket(String key, int maxCount, int seconds, long maxLease) {
+            this.key = key;
+            this.maxCount = maxCount;
+            this.seconds = seconds;
+            this.maxLease = maxLease;
+        }
+
+        private boolean tryConsume() {
+            if (consumed.sum() >= granted) {
+                return false;
+            }
+            consumed.increment();
+            if (consumed.sum() > granted) {
+                consumed.decrement();
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 收回全部未用令牌，返回可以归还的数量，需持有锁
+         * 扣减不加锁：先按读取时的剩余量收回，此后的扣减按收回后的granted判断；
+         * 收回前已通过判断、但计数晚于读取的扣减在收回后重新读取时计入，这部分令牌留在本地不归还
+         */
+        private long retract() {
+            long unused = Math.max(0, granted - consumed.sum());
+            granted -= unused;
+            long overdrawn = Math.min(unused, Math.max(0, consumed.sum() - granted));
+            granted += overdrawn;
+            return unused - overdrawn;
+        }
+
+        private long waitMillis() {
+            long wait = retryAt - System.nanoTime();
+            return wait > 0 ? TimeUnit.NANOSECONDS.toMillis(wait) + 1 : 0;
+        }
+
+        private RedisRateLimiter.Lease lease(long requested, long refund) {
+            return new RedisRateLimiter.Lease(key, maxCount, seconds, requested, refund);
+        }
+
+        /**
+         * 应用续租结果：正数为租到的令牌数，负数为全局令牌桶为空时的等待毫秒数
+         */
+        private void apply(long result) {
+            if (result > 0) {
+                granted += result;
+                retryAt = 0;
+            } else if (result < 0) {
+                retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(-result);
+            }
+        }
+    }
+
+    /**
+     * 本地限流统计
+     *
+     * @param localAllowed 本地租约直接放行的次数
+     * @param rejected     拒绝次数
+     * @param syncLeases   本地租约用完时同步续租的次数
+     * @param batchSyncs   批量同步的次数
+     * @param failOpen     Redis不可用时直接放行的次数
+     * @param keys         本地限流key数
+     */
+    public record Stats(long localAllowed, long rejected, long syncLeases, long batchSyncs, long failOpen, long keys) {
+    }
+}
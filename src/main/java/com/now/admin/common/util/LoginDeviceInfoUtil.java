@@ -73,13 +73,27 @@ public class LoginDeviceInfoUtil {
     }
 
     public static deviceInfo getLoginInfo(HttpServletRequest request) {
+        return enrich(getClientInfo(request));
+    }
+
+    /**
+     * 只读取请求头中的IP和User-Agent，不做解析，可以在请求线程中调用
+     */
+    public static deviceInfo getClientInfo(HttpServletRequest request) {
         deviceInfo info = new deviceInfo();
-        String ip = getRealIp(request);
-        info.setIp(ip);
-        info.setLocation(getLocation(ip));
+        info.setIp(getRealIp(request));
+        info.setUserAgent(request.getHeader("User-Agent"));
+        return info;
+    }
+
+    /**
+     * 解析IP归属地和设备/浏览器/OS，耗时较长，适合在后台任务中调用
+     */
+    public static deviceInfo enrich(deviceInfo info) {
+        info.setLocation(getLocation(info.getIp()));
 
         // 解析设备/浏览器/OS
-        UserAgent ua = UserAgent.parseUserAgentString(request.getHeader("User-Agent"));
+        UserAgent ua = UserAgent.parseUserAgentString(info.getUserAgent());
         info.setOs(ua.getOperatingSystem().getName());
         info.setBrowser(ua.getBrowser().getName());
         info.setDevice(ua.getOperatingSystem().getDeviceType().getName());
@@ -131,5 +145,6 @@ public class LoginDeviceInfoUtil {
         private String os;
         private String browser;
         private String device;
+        private String userAgent;
     }
 }
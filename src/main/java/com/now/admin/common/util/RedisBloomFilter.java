@@ -0,0 +1,327 @@
+package com.now.admin.common.util;
+
+import com.now.admin.common.exception.InnerCommonException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * 基于Redis位图的布隆过滤器，元素为long
+ * 位图存储在Redis中，所有节点共享，任一节点写入后其他节点立即可见；一次查询或写入只有一次网络往返。
+ * key中包含位数和哈希函数个数，调整容量或误判率后使用新的key，需要重建
+ *
+ * 位图不存在（未构建、被删除或淘汰）时查询返回null，由调用方按“可能存在”处理，不会误判为不存在
+ *
+ * 重建由Redis锁保证同一时间只有一个节点执行；重建期间临时位图 {key}:rebuilding 存在，
+ * 所有节点的写入同时写入正式位图和临时位图，替换时不会丢失构建期间新增的元素
+ */
+public class RedisBloomFilter {
+
+    /**
+     * 每次脚本调用写入的元素数
+     */
+    private static final int PUT_BATCH_SIZE = 1000;
+
+    /**
+     * 所有偏移量的位都为1时返回1，任一为0时返回0，位图不存在时返回-1
+     */
+    private static final RedisScript<Long> MIGHT_CONTAIN_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return -1
+            end
+            for i = 1, #ARGV do
+                if redis.call('GETBIT', KEYS[1], ARGV[i]) == 0 then
+                    return 0
+                end
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * 写入脚本，KEYS[1]为正式位图，KEYS[2]为重建中的临时位图
+     * 把存在的位图中所有偏移量的位置为1，都不存在时不创建（由重建生成），返回是否写入
+     */
+    private static final RedisScript<Long> PUT_SCRIPT = new DefaultRedisScript<>("""
+            local live = redis.call('EXISTS', KEYS[1]) == 1
+            local building = redis.call('EXISTS', KEYS[2]) == 1
+            if not live and not building then
+                return 0
+            end
+            for i = 1, #ARGV do
+                if live then
+                    redis.call('SETBIT', KEYS[1], ARGV[i], 1)
+                end
+                if building then
+                    redis.call('SETBIT', KEYS[2], ARGV[i], 1)
+                end
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * 开始重建，KEYS[1]为正式位图，KEYS[2]为临时位图，KEYS[3]为重建锁，KEYS[4]为最近重建标记；
+     * ARGV[1]为锁标识，ARGV[2]为锁的存活时间（毫秒），ARGV[3]为最后一位的偏移量。
+     * 正式位图存在且最近已重建时返回-1，其他节点正在重建时返回0；
+     * 取得锁后创建全0的临时位图，与锁同时过期，返回1
+     */
+    private static final RedisScript<Long> START_REBUILD_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 and redis.call('EXISTS', KEYS[4]) == 1 then
+                return -1
+            end
+            if not redis.call('SET', KEYS[3], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                return 0
+            end
+            redis.call('DEL', KEYS[2])
+            redis.call('SETBIT', KEYS[2], ARGV[3], 0)
+            redis.call('PEXPIRE', KEYS[2], ARGV[2])
+            return 1
+            """, Long.class);
+
+    /**
+     * 完成重建，KEYS[1]为正式位图，KEYS[2]为临时位图，KEYS[3]为本地构建的位图，KEYS[4]为重建锁，KEYS[5]为最近重建标记；
+     * ARGV[1]为锁标识，ARGV[2]为最近重建标记的存活时间（毫秒）。
+     * 本地构建的位图与构建期间写入临时位图的元素合并后替换正式位图；锁已失效（超时）时放弃，返回0
+     */
+    private static final RedisScript<Long> FINISH_REBUILD_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[4]) ~= ARGV[1] or redis.call('EXISTS', KEYS[2]) == 0 then
+                redis.call('DEL', KEYS[3])
+                return 0
+            end
+            redis.call('BITOP', 'OR', KEYS[2], KEYS[2], KEYS[3])
+            redis.call('DEL', KEYS[3], KEYS[4])
+            redis.call('RENAME', KEYS[2], KEYS[1])
+            redis.call('PERSIST', KEYS[1])
+            if tonumber(ARGV[2]) > 0 then
+                redis.call('SET', KEYS[5], ARGV[1], 'PX', ARGV[2])
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * 放弃重建，KEYS[1]为临时位图，KEYS[2]为本地构建的位图，KEYS[3]为重建锁；ARGV[1]为锁标识。只释放自己持有的锁
+     */
+    private static final RedisScript<Long> ABORT_REBUILD_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[2])
+            if redis.call('GET', KEYS[3]) == ARGV[1] then
+                redis.call('DEL', KEYS[1], KEYS[3])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 重建锁和临时位图的存活时间，重建超过该时间视为失败，其他节点可以重新开始
+     */
+    private static final Duration REBUILD_TIMEOUT = Duration.ofMinutes(10);
+
+    /**
+     * 标记重建后、读取元素前的等待时间
+     * 在标记之前写入正式位图、读取时尚未提交的元素（写入发生在事务提交前）在等待期间提交，能被读取到
+     */
+    private static final Duration PENDING_WRITE_WAIT = Duration.ofSeconds(1);
+
+    /**
+     * 等待其他节点重建时检查锁的间隔
+     */
+    private static final long AWAIT_INTERVAL_MILLIS = 500;
+
+    private final RedisUtil redisUtil;
+
+    private final String key;
+
+    private final String rebuildingKey;
+
+    private final String snapshotKey;
+
+    private final String lockKey;
+
+    private final String rebuiltKey;
+
+    private final long bitSize;
+
+    private final int hashCount;
+
+    /**
+     * @param redisUtil          RedisUtil
+     * @param keyPrefix          key前缀，完整key为 {keyPrefix}{位数}:{哈希函数个数}
+     * @param expectedInsertions 预计元素数
+     * @param fpp                期望误判率
+     */
+    public RedisBloomFilter(RedisUtil redisUtil, String keyPrefix, long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("布隆过滤器容量或误判率不合法");
+        }
+        this.redisUtil = redisUtil;
+        // m = -n·ln(p) / (ln2)²，k = m/n·ln2
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        // Redis位图最大 2^32 位，按字节对齐
+        this.bitSize = Math.min((bits + 7) / 8 * 8, 1L << 32);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.key = keyPrefix + bitSize + ":" + hashCount;
+        this.rebuildingKey = key + ":rebuilding";
+        this.snapshotKey = key + ":snapshot";
+        this.lockKey = key + ":lock";
+        this.rebuiltKey = key + ":rebuilt";
+    }
+
+    /**
+     * 位图是否已构建
+     */
+    public boolean exists() {
+        return redisUtil.hasKey(key);
+    }
+
+    /**
+     * 查询元素是否可能存在
+     *
+     * @return false表示一定不存在；位图不存在时返回null
+     */
+    public Boolean mightContain(long value) {
+        Long result = redisUtil.execute(MIGHT_CONTAIN_SCRIPT, List.of(key), offsets(value).toArray(new String[0]));
+        if (result == null || result < 0) {
+            return null;
+        }
+        return result == 1L;
+    }
+
+    /**
+     * 写入元素，每批元素一次脚本调用
+     *
+     * @return 位图是否存在，不存在时未写入
+     */
+    public boolean put(Collection<Long> values) {
+        List<String> args = new ArrayList<>();
+        int count = 0;
+        for (Long value : values) {
+            args.addAll(offsets(value));
+            if (++count % PUT_BATCH_SIZE == 0) {
+                if (!putOffsets(args)) {
+                    return false;
+                }
+                args = new ArrayList<>();
+            }
+        }
+        return args.isEmpty() || putOffsets(args);
+    }
+
+    /**
+     * 重建位图，同一时间只有一个节点执行
+     * 先取得重建锁并创建临时位图，此后所有节点的 put 同时写入临时位图；
+     * 再在本地生成完整位图，与临时位图合并后RENAME替换，替换前查询仍使用旧位图
+     *
+     * @param source   向传入的消费者依次提供全部元素
+     * @param freshFor 重建完成后的这段时间内，其他节点的重建直接跳过；为0时不跳过
+     * @return 是否由本节点完成重建，其他节点正在重建或最近已重建时返回false
+     */
+    public boolean rebuild(Consumer<LongConsumer> source, Duration freshFor) {
+        String token = UUID.randomUUID().toString();
+        Long started = redisUtil.execute(START_REBUILD_SCRIPT, List.of(key, rebuildingKey, lockKey, rebuiltKey),
+                token, String.valueOf(REBUILD_TIMEOUT.toMillis()), String.valueOf(bitSize - 1));
+        if (!Long.valueOf(1L).equals(started)) {
+            return false;
+        }
+        try {
+            Thread.sleep(PENDING_WRITE_WAIT.toMillis());
+            byte[] bitmap = new byte[(int) (bitSize / 8)];
+            source.accept(value -> {
+                for (long offset : offsetValues(value)) {
+                    bitmap[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+                }
+            });
+            byte[] rawSnapshotKey = snapshotKey.getBytes(StandardCharsets.UTF_8);
+            redisUtil.execute((RedisCallback<Object>) connection -> connection.stringCommands().set(rawSnapshotKey, bitmap));
+            Long finished = redisUtil.execute(FINISH_REBUILD_SCRIPT, List.of(key, rebuildingKey, snapshotKey, lockKey, rebuiltKey),
+                    token, String.valueOf(freshFor.toMillis()));
+            if (!Long.valueOf(1L).equals(finished)) {
+                throw new InnerCommonException("布隆过滤器重建超时，重建锁已失效: " + key);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortRebuild(token);
+            throw new InnerCommonException("布隆过滤器重建被中断: " + key);
+        } catch (RuntimeException e) {
+            abortRebuild(token);
+            throw e;
+        }
+    }
+
+    /**
+     * 等待其他节点的重建结束
+     *
+     * @return 重建锁释放后位图是否存在
+     */
+    public boolean awaitRebuild() {
+        long deadline = System.currentTimeMillis() + REBUILD_TIMEOUT.toMillis();
+        try {
+            while (redisUtil.hasKey(lockKey) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(AWAIT_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return exists();
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private boolean putOffsets(List<String> offsets) {
+        return Long.valueOf(1L).equals(redisUtil.execute(PUT_SCRIPT, List.of(key, rebuildingKey), offsets.toArray(new String[0])));
+    }
+
+    private void abortRebuild(String token) {
+        try {
+            redisUtil.execute(ABORT_REBUILD_SCRIPT, List.of(rebuildingKey, snapshotKey, lockKey), token);
+        } catch (RuntimeException e) {
+            // 锁和临时位图到期后自动删除
+        }
+    }
+
+    private List<String> offsets(long value) {
+        long[] offsetValues = offsetValues(value);
+        List<String> offsets = new ArrayList<>(offsetValues.length);
+        for (long offset : offsetValues) {
+            offsets.add(String.valueOf(offset));
+        }
+        return offsets;
+    }
+
+    /**
+     * 双重哈希：第i个位置为 h1 + i·h2，两个哈希值由同一64位混合函数派生
+     */
+    private long[] offsetValues(long value) {
+        long h1 = mix(value);
+        long h2 = mix(h1) | 1;
+        long[] offsets = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            offsets[i] = Math.floorMod(h1 + i * h2, bitSize);
+        }
+        return offsets;
+    }
+
+    /**
+     * splitmix64 的混合函数
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,367 @@
+package com.now.admin.common.util;
+
+import com.now.admin.common.exception.RedisUnavailableException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.PoolException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Redis熔断器
+ * 按最近N次调用统计失败率和慢调用率（耗时超过阈值的比例，即对应分位的延迟超过阈值），任一超过阈值时打开；
+ * 打开期间直接抛出 RedisUnavailableException，不再等待连接池和命令超时，请求线程不会被Redis拖住；
+ * 打开一段时间后进入半开状态，放行少量探测调用，全部成功且不慢时关闭，否则重新打开；
+ * 半开状态只统计取得探测许可的调用，打开或半开之前发出的调用完成时不再计入
+ *
+ * 记录调用结果不加锁，窗口和计数均为原子变量，只有状态变化时加锁
+ *
+ * 只有连接失败、连接池耗尽和命令超时计为失败，脚本错误、序列化错误等与Redis健康无关的异常原样抛出
+ */
+@Slf4j
+@Component
+public class RedisCircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 统计窗口的调用次数
+     */
+    @Value("${redis.circuit-breaker.window-size:100}")
+    private int windowSize;
+
+    /**
+     * 窗口内调用次数达到该值后才判断是否打开
+     */
+    @Value("${redis.circuit-breaker.minimum-calls:20}")
+    private int minimumCalls;
+
+    /**
+     * 失败率阈值
+     */
+    @Value("${redis.circuit-breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    /**
+     * 慢调用耗时阈值
+     */
+    @Value("${redis.circuit-breaker.slow-call-duration:200ms}")
+    private Duration slowCallDuration;
+
+    /**
+     * 慢调用率阈值
+     */
+    @Value("${redis.circuit-breaker.slow-call-rate-threshold:0.5}")
+    private double slowCallRateThreshold;
+
+    /**
+     * 打开后等待多久进入半开状态
+     */
+    @Value("${redis.circuit-breaker.open-duration:5s}")
+    private Duration openDuration;
+
+    /**
+     * 半开状态放行的探测调用数
+     */
+    @Value("${redis.circuit-breaker.half-open-calls:5}")
+    private int halfOpenCalls;
+
+    /**
+     * 当前阶段，每次状态变化替换为新的实例；调用记录准入时的阶段，完成时阶段已变化则不再计入
+     */
+    private volatile Phase phase = new Phase(State.CLOSED, 0);
+
+    private long slowCallNanos;
+
+    /**
+     * 环形窗口：每个槽位保存一次调用的 耗时 << 1 | 是否失败，空槽位为 EMPTY_SLOT
+     * 槽位按序号轮流写入，每次写入用 getAndSet 取出被覆盖的调用，计数按新旧调用的差值增减，不需要加锁
+     */
+    private AtomicLongArray slots;
+
+    private final AtomicLong nextSlot = new AtomicLong();
+
+    private final AtomicInteger windowCount = new AtomicInteger();
+
+    private final AtomicInteger failureCount = new AtomicInteger();
+
+    private final AtomicInteger slowCount = new AtomicInteger();
+
+    private static final long EMPTY_SLOT = -1L;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder opened = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        slots = new AtomicLongArray(windowSize);
+        for (int i = 0; i < windowSize; i++) {
+            slots.set(i, EMPTY_SLOT);
+        }
+        slowCallNanos = slowCallDuration.toNanos();
+    }
+
+    /**
+     * 经熔断器执行Redis操作
+     *
+     * @param action Redis操作
+     * @return 操作结果
+     * @throws RedisUnavailableException 熔断器打开，或连接失败、命令超时
+     */
+    public <T> T execute(Supplier<T> action) {
+        Phase admitted = tryAcquire();
+        if (admitted == null) {
+            rejected.increment();
+            throw new RedisUnavailableException();
+        }
+        long startTime = System.nanoTime();
+        boolean failure = false;
+        try {
+            return action.get();
+        } catch (DataAccessResourceFailureException | QueryTimeoutException | PoolException e) {
+            failure = true;
+            failed.increment();
+            throw new RedisUnavailableException(e);
+        } finally {
+            calls.increment();
+            onComplete(admitted, System.nanoTime() - startTime, failure);
+        }
+    }
+
+    /**
+     * 经熔断器执行无返回值的Redis操作
+     */
+    public void run(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 当前状态
+     */
+    public State getState() {
+        Phase current = phase;
+        if (current.state == State.OPEN && openDurationElapsed(current)) {
+            return State.HALF_OPEN;
+        }
+        return current.state;
+    }
+
+    /**
+     * 熔断器是否关闭，即Redis当前视为可用
+     */
+    public boolean isClosed() {
+        return phase.state == State.CLOSED;
+    }
+
+    /**
+     * 获取调用许可，返回准入时的阶段；半开状态下只有取得探测许可的调用被放行
+     *
+     * @return 准入阶段，拒绝时返回null
+     */
+    private Phase tryAcquire() {
+        Phase current = phase;
+        if (current.state == State.CLOSED) {
+            return current;
+        }
+        if (current.state == State.OPEN) {
+            if (!openDurationElapsed(current)) {
+                return null;
+            }
+            current = transition(current, State.HALF_OPEN);
+            if (current.state == State.CLOSED) {
+                return current;
+            }
+        }
+        if (current.state == State.HALF_OPEN && current.permits.getAndDecrement() > 0) {
+            return current;
+        }
+        return null;
+    }
+
+    private void onComplete(Phase admitted, long nanos, boolean failure) {
+        // 准入之后状态已变化（如打开前发出的调用、半开前发出的调用），不再计入
+        if (admitted != phase) {
+            return;
+        }
+        boolean slow = nanos > slowCallNanos;
+        switch (admitted.state) {
+            case CLOSED -> {
+                record(nanos, failure);
+                int count = windowCount.get();
+                if (count >= minimumCalls) {
+                    int failures = failureCount.get();
+                    int slowCalls = slowCount.get();
+                    if (failures >= failureRateThreshold * count) {
+                        open(admitted, "失败率 " + failures + "/" + count);
+                    } else if (slowCalls >= slowCallRateThreshold * count) {
+                        open(admitted, "慢调用率 " + slowCalls + "/" + count);
+                    }
+                }
+            }
+            case HALF_OPEN -> {
+                if (failure || slow) {
+                    open(admitted, failure ? "探测调用失败" : "探测调用耗时 " + Duration.ofNanos(nanos).toMillis() + "ms");
+                } else if (admitted.succeeded.incrementAndGet() >= halfOpenCalls
+                        && transition(admitted, State.CLOSED).state == State.CLOSED) {
+                    log.info("Redis熔断器已关闭");
+                }
+            }
+            case OPEN -> {
+                // 打开状态不放行调用
+            }
+        }
+    }
+
+    /**
+     * 写入窗口，计数按被覆盖的调用和本次调用的差值增减
+     */
+    private void record(long nanos, boolean failure) {
+        long slot = nanos << 1 | (failure ? 1 : 0);
+        int index = (int) (nextSlot.getAndIncrement() % windowSize);
+        adjust(slots.getAndSet(index, slot), -1);
+        adjust(slot, 1);
+    }
+
+    private void adjust(long slot, int delta) {
+        if (slot == EMPTY_SLOT) {
+            return;
+        }
+        windowCount.addAndGet(delta);
+        if ((slot & 1) == 1) {
+            failureCount.addAndGet(delta);
+        }
+        if (slot >>> 1 > slowCallNanos) {
+            slowCount.addAndGet(delta);
+        }
+    }
+
+    private void open(Phase expected, String reason) {
+        if (transition(expected, State.OPEN).state == State.OPEN) {
+            opened.increment();
+            log.warn("Redis熔断器已打开（{}），{}内Redis调用直接失败", reason, openDuration);
+        }
+    }
+
+    /**
+     * 状态变化，只有仍处于expected阶段时才切换；打开和关闭时清空窗口
+     *
+     * @return 切换后的阶段，已被其他线程切换时返回当前阶段
+     */
+    private synchronized Phase transition(Phase expected, State target) {
+        if (phase != expected) {
+            return phase;
+        }
+        if (target != State.HALF_OPEN) {
+            resetWindow();
+        }
+        Phase next = new Phase(target, target == State.HALF_OPEN ? halfOpenCalls : 0);
+        phase = next;
+        if (target == State.HALF_OPEN) {
+            log.info("Redis熔断器进入半开状态，放行{}次探测调用", halfOpenCalls);
+        }
+        return next;
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < windowSize; i++) {
+            adjust(slots.getAndSet(i, EMPTY_SLOT), -1);
+        }
+    }
+
+    private boolean openDurationElapsed(Phase current) {
+        return System.nanoTime() - current.since >= openDuration.toNanos();
+    }
+
+    /**
+     * 熔断器运行统计，延迟分位按当前窗口计算
+     */
+    public Stats getStats() {
+        long[] window = new long[windowSize];
+        int count = 0;
+        int failures = 0;
+        int slowCalls = 0;
+        for (int i = 0; i < windowSize; i++) {
+            long slot = slots.get(i);
+            if (slot == EMPTY_SLOT) {
+                continue;
+            }
+            window[count++] = slot >>> 1;
+            failures += (int) (slot & 1);
+            slowCalls += slot >>> 1 > slowCallNanos ? 1 : 0;
+        }
+        window = Arrays.copyOf(window, count);
+        Arrays.sort(window);
+        return new Stats(getState(), calls.sum(), failed.sum(), rejected.sum(), opened.sum(),
+                count, count == 0 ? 0 : (double) failures / count,
+                count == 0 ? 0 : (double) slowCalls / count,
+                percentile(window, 0.5), percentile(window, 0.99));
+    }
+
+    private static Duration percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(sorted[(int) Math.ceil(quantile * sorted.length) - 1]);
+    }
+
+    /**
+     * 熔断器阶段
+     * 半开阶段的探测许可和成功次数属于该阶段，之前阶段发出的调用不会占用或计入
+     */
+    private static final class Phase {
+
+        private final State state;
+
+        private final long since = System.nanoTime();
+
+        private final AtomicInteger permits;
+
+        private final AtomicInteger succeeded = new AtomicInteger();
+
+        private Phase(State state, int permits) {
+            this.state = state;
+            this.permits = new AtomicInteger(permits);
+        }
+    }
+
+    /**
+     * 熔断器统计
+     *
+     * @param state        当前状态
+     * @param calls        经熔断器执行的调用次数
+     * @param failed       连接失败或超时的次数
+     * @param rejected     熔断器打开时直接拒绝的次数
+     * @param opened       打开的次数
+     * @param windowCalls  当前窗口的调用次数
+     * @param failureRate  当前窗口的失败率
+     * @param slowCallRate 当前窗口的慢调用率
+     * @param p50          当前窗口的延迟中位数
+     * @param p99          当前窗口的99分位延迟
+     */
+    public record Stats(State state, long calls, long failed, long rejected, long opened,
+                        int windowCalls, double failureRate, double slowCallRate, Duration p50, Duration p99) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.now.admin.common.util;
+
+import com.now.admin.common.exception.RedisUnavailableException;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于Redis的令牌桶限流（GCRA算法）
+ * 每个key只存一个值：令牌桶的理论到达时间（TAT），一次判断只执行一次脚本，读取、判断、写入在Redis中原子完成，
+ * 时间取Redis服务器时间，各节点时钟不一致不影响结果；key在令牌补满后自动过期
+ *
+ * 除逐次获取外，也支持一次预取（租约）多个令牌、归还未用完的令牌，供本地限流批量同步使用
+ *
+ * Redis不可用时放行，限流不影响业务可用性
+ */
+@Slf4j
+@Component
+public class RedisRateLimiter {
+
+    /**
+     * KEYS[1] 限流key；ARGV[1] 补充一个令牌的间隔（微秒），ARGV[2] 桶容量，ARGV[3] 申请的令牌数，ARGV[4] 归还的令牌数
+     * 先归还再申请，桶中令牌不足时部分发放；返回发放的令牌数，一个都没有时返回负的等待时间（微秒），只归还时返回0
+     */
+    private static final RedisScript<Long> LEASE_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local interval = tonumber(ARGV[1])
+            local capacity = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local tat = tonumber(redis.call('GET', KEYS[1]))
+            if tat == nil then
+                tat = now
+            end
+            tat = tat - interval * tonumber(ARGV[4])
+            if tat < now then
+                tat = now
+            end
+            local granted = math.min(requested, math.floor((now + interval * capacity - tat) / interval))
+            if granted > 0 then
+                tat = tat + interval * granted
+            end
+            if tat > now then
+                redis.call('SET', KEYS[1], string.format('%.0f', tat), 'PX', math.ceil((tat - now) / 1000))
+            else
+                redis.call('DEL', KEYS[1])
+            end
+            if granted > 0 or requested == 0 then
+                return granted
+            end
+            return -(tat + interval - interval * capacity - now)
+            """, Long.class);
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    private final LongAdder allowed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder failOpen = new LongAdder();
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param key      限流key
+     * @param maxCount 时间窗口内的最大请求数，即桶容量
+     * @param seconds  时间窗口（秒），桶从空到满的时间
+     * @return 放行返回0，拒绝返回需要等待的毫秒数
+     */
+    public long tryAcquire(String key, int maxCount, int seconds) {
+        Long result;
+        try {
+            result = redisUtil.execute(LEASE_SCRIPT, List.of(key), leaseArgs(maxCount, seconds, 1, 0).toArray(new String[0]));
+        } catch (RedisUnavailableException e) {
+            failOpen.increment();
+            return 0;
+        }
+        if (result == null || result > 0) {
+            allowed.increment();
+            return 0;
+        }
+        rejected.increment();
+        return toMillis(-result);
+    }
+
+    /**
+     * 批量租约：每个限流key先归还未用完的令牌，再申请新令牌，所有key在一个管道中只有一次网络往返
+     *
+     * @param leases 租约申请
+     * @return 与leases一一对应：发放的令牌数，一个都没有时为负的等待毫秒数
+     * @throws RedisUnavailableException Redis不可用
+     */
+    public List<Long> lease(List<Lease> leases) {
+        List<List<String>> keys = new ArrayList<>(leases.size());
+        List<List<String>> args = new ArrayList<>(leases.size());
+        for (Lease lease : leases) {
+            keys.add(List.of(lease.key()));
+            args.add(leaseArgs(lease.maxCount(), lease.seconds(), lease.requested(), lease.refund()));
+        }
+        List<Long> results = redisUtil.executePipelined(LEASE_SCRIPT, keys, args);
+        List<Long> granted = new ArrayList<>(results.size());
+        for (Long result : results) {
+            if (result == null) {
+                granted.add(0L);
+            } else {
+                granted.add(result >= 0 ? result : -toMillis(-result));
+            }
+        }
+        return granted;
+    }
+
+    /**
+     * 限流统计
+     */
+    public Stats getStats() {
+        return new Stats(allowed.sum(), rejected.sum(), failOpen.sum());
+    }
+
+    private static List<String> leaseArgs(int maxCount, int seconds, long requested, long refund) {
+        if (maxCount <= 0 || seconds <= 0) {
+            throw new IllegalArgumentException("限流次数和时间窗口必须大于0");
+        }
+        long intervalMicros = Math.max(1, seconds * 1_000_000L / maxCount);
+        return List.of(String.valueOf(intervalMicros), String.valueOf(maxCount), String.valueOf(requested), String.valueOf(refund));
+    }
+
+    private static long toMillis(long micros) {
+        return Math.max(1, (micros + 999) / 1000);
+    }
+
+    /**
+     * 令牌租约申请
+     *
+     * @param key       限流key
+     * @param maxCount  桶容量
+     * @param seconds   桶从空到满的时间（秒）
+     * @param requested 申请的令牌数
+     * @param refund    归还的未用令牌数
+     */
+    public record Lease(String key, int maxCount, int seconds, long requested, long refund) {
+    }
+
+    /**
+     * 限流统计
+     *
+     * @param allowed  放行次数
+     * @param rejected 拒绝次数
+     * @param failOpen Redis不可用时直接放行的次数
+     */
+    public record Stats(long allowed, long rejected, long failOpen) {
+    }
+}
@@ -1,14 +1,26 @@
 package com.now.admin.common.util;
 
+import com.now.admin.common.serializer.CompactRedisSerializer;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.Resource;
-import tools.jackson.databind.json.JsonMapper;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
 @Component
 public class RedisUtil {
@@ -16,11 +28,29 @@ public class RedisUtil {
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
-    private GenericJacksonJsonRedisSerializer serializer;
-    public RedisUtil(JsonMapper jsonMapper){
+    @Resource
+    private CompactRedisSerializer serializer;
+
+    @Resource
+    private RedisCircuitBreaker circuitBreaker;
+
+    /**
+     * 写入多个hash项并设置过期时间，ARGV[1]为过期时间（秒），其后为字段、值交替
+     */
+    private static final RedisScript<Long> HM_SET_EXPIRE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], unpack(ARGV, 2))
+            local ttl = tonumber(ARGV[1])
+            if ttl > 0 then
+                redis.call('EXPIRE', KEYS[1], ttl)
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * SCAN每次返回的key数，也是批量删除时每条DEL命令的key数
+     */
+    private static final int SCAN_BATCH_SIZE = 1000;
 
-        this.serializer = new GenericJacksonJsonRedisSerializer(jsonMapper);
-    }
     // ==================== 通用 ====================
 
     /**
@@ -31,7 +61,7 @@ public class RedisUtil {
     public boolean expire(String key, long time) {
         try {
             if (time > 0) {
-                redisTemplate.expire(key, time, TimeUnit.SECONDS);
+                circuitBreaker.run(() -> redisTemplate.expire(key, time, TimeUnit.SECONDS));
             }
             return true;
         } catch (Exception e) {
@@ -43,7 +73,7 @@ public class RedisUtil {
      * 获取过期时间
      */
     public long getExpire(String key) {
-        return redisTemplate.getExpire(key, TimeUnit.SECONDS);
+        return circuitBreaker.execute(() -> redisTemplate.getExpire(key, TimeUnit.SECONDS));
     }
 
     /**
@@ -51,7 +81,7 @@ public class RedisUtil {
      */
     public boolean hasKey(String key) {
         try {
-            return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+            return Boolean.TRUE.equals(circuitBreaker.execute(() -> redisTemplate.hasKey(key)));
         } catch (Exception e) {
             return false;
         }
@@ -63,28 +93,88 @@ public class RedisUtil {
     public void del(String... key) {
         if (key != null && key.length > 0) {
             if (key.length == 1) {
-                redisTemplate.delete(key[0]);
+                circuitBreaker.run(() -> redisTemplate.delete(key[0]));
             } else {
-                redisTemplate.delete(Arrays.asList(key));
+                circuitBreaker.run(() -> redisTemplate.delete(Arrays.asList(key)));
             }
         }
     }
 
+    /**
+     * 批量删除缓存，一次DEL命令
+     *
+     * @return 删除的key数量
+     */
+    public long del(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+        Long count = circuitBreaker.execute(() -> redisTemplate.delete(keys));
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 删除指定前缀的全部key，使用SCAN遍历，不阻塞Redis；每批key一次DEL命令
+     *
+     * @return 删除的key数量
+     */
+    public long delByPrefix(String prefix) {
+        ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(SCAN_BATCH_SIZE).build();
+        return circuitBreaker.execute(() -> redisTemplate.execute((RedisCallback<Long>) connection -> {
+            long deleted = 0;
+            List<byte[]> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next());
+                    if (batch.size() >= SCAN_BATCH_SIZE) {
+                        deleted += connection.keyCommands().del(batch.toArray(new byte[0][]));
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                deleted += connection.keyCommands().del(batch.toArray(new byte[0][]));
+            }
+            return deleted;
+        }));
+    }
+
     // ==================== String ====================
 
     /**
      * 获取缓存
      */
+    public Object get(String key) {
+        return circuitBreaker.execute(() -> redisTemplate.opsForValue().get(key));
+    }
+
+    /**
+     * 获取缓存，按指定类型反序列化
+     */
     public <T> T get(String key, Class<T> clazz) {
-        byte[] bytes = redisTemplate.getConnectionFactory()
-                .getConnection()
-                .get(key.getBytes());
+        byte[] bytes = circuitBreaker.execute(() -> redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(rawKey(key))));
+        return serializer.deserialize(bytes, clazz);
+    }
 
-        if (bytes == null || bytes.length == 0) {
-            return null;
+    /**
+     * 批量获取缓存，一次MGET命令，按指定类型反序列化
+     *
+     * @return 顺序与keys一致，不存在的key为null
+     */
+    public <T> List<T> multiGet(Collection<String> keys, Class<T> clazz) {
+        if (keys == null || keys.isEmpty()) {
+            return List.of();
         }
-
-        return serializer.deserialize(bytes, clazz);
+        byte[][] rawKeys = keys.stream().map(RedisUtil::rawKey).toArray(byte[][]::new);
+        List<byte[]> values = circuitBreaker.execute(() -> redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(rawKeys)));
+        List<T> result = new ArrayList<>(keys.size());
+        if (values == null) {
+            values = Collections.nCopies(keys.size(), null);
+        }
+        values.forEach(bytes -> result.add(serializer.deserialize(bytes, clazz)));
+        return result;
     }
 
     /**
@@ -92,7 +182,7 @@ public class RedisUtil {
      */
     public boolean set(String key, Object value) {
         try {
-            redisTemplate.opsForValue().set(key, value);
+            circuitBreaker.run(() -> redisTemplate.opsForValue().set(key, value));
             return true;
         } catch (Exception e) {
             return false;
@@ -105,7 +195,7 @@ public class RedisUtil {
     public boolean set(String key, Object value, long time) {
         try {
             if (time > 0) {
-                redisTemplate.opsForValue().set(key, value, time, TimeUnit.SECONDS);
+                circuitBreaker.run(() -> redisTemplate.opsForValue().set(key, value, time, TimeUnit.SECONDS));
             } else {
                 set(key, value);
             }
@@ -115,6 +205,42 @@ public class RedisUtil {
         }
     }
 
+    /**
+     * 批量设置缓存，所有key使用同一过期时间，在一个管道中写入
+     *
+     * @param time 过期时间，s，小于等于0时不过期
+     */
+    public boolean multiSet(Map<String, ?> values, long time) {
+        return multiSet(values, key -> time);
+    }
+
+    /**
+     * 批量设置缓存，每个key单独指定过期时间，在一个管道中写入，只有一次网络往返
+     *
+     * @param time 按key返回过期时间，s，小于等于0时不过期
+     */
+    @SuppressWarnings("unchecked")
+    public boolean multiSet(Map<String, ?> values, ToLongFunction<String> time) {
+        if (values == null || values.isEmpty()) {
+            return true;
+        }
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        try {
+            circuitBreaker.execute(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                values.forEach((key, value) -> {
+                    long seconds = time.applyAsLong(key);
+                    connection.stringCommands().set(rawKey(key), valueSerializer.serialize(value),
+                            seconds > 0 ? Expiration.seconds(seconds) : Expiration.persistent(),
+                            RedisStringCommands.SetOption.upsert());
+                });
+                return null;
+            }));
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     /**
      * 递增
      */
@@ -122,7 +248,7 @@ public class RedisUtil {
         if (delta < 0) {
             throw new RuntimeException("递增因子必须大于0");
         }
-        return redisTemplate.opsForValue().increment(key, delta);
+        return circuitBreaker.execute(() -> redisTemplate.opsForValue().increment(key, delta));
     }
 
     /**
@@ -132,7 +258,7 @@ public class RedisUtil {
         if (delta < 0) {
             throw new RuntimeException("递减因子必须大于0");
         }
-        return redisTemplate.opsForValue().increment(key, -delta);
+        return circuitBreaker.execute(() -> redisTemplate.opsForValue().increment(key, -delta));
     }
 
     // ==================== Map ====================
@@ -141,14 +267,55 @@ public class RedisUtil {
      * 获取hash值
      */
     public Object hGet(String key, String item) {
-        return redisTemplate.opsForHash().get(key, item);
+        return circuitBreaker.execute(() -> redisTemplate.opsForHash().get(key, item));
     }
 
     /**
      * 获取hash所有键值
      */
     public Map<Object, Object> hmGet(String key) {
-        return redisTemplate.opsForHash().entries(key);
+        return circuitBreaker.execute(() -> redisTemplate.opsForHash().entries(key));
+    }
+
+    /**
+     * 批量获取hash中的多个值，顺序与items一致，不存在的项为null
+     */
+    public List<Object> hMultiGet(String key, Collection<String> items) {
+        return circuitBreaker.execute(() -> redisTemplate.opsForHash().multiGet(key, new ArrayList<>(items)));
+    }
+
+    /**
+     * 跨多个hash批量获取字段，在一个管道中对每个key执行HMGET，只有一次网络往返
+     *
+     * @param keyItems key及其要读取的字段
+     * @return key到字段值的映射，顺序与keyItems一致，值的顺序与字段一致，不存在的项为null
+     */
+    public Map<String, List<Object>> hMultiGet(Map<String, ? extends Collection<String>> keyItems) {
+        if (keyItems == null || keyItems.isEmpty()) {
+            return Map.of();
+        }
+        List<String> keys = new ArrayList<>(keyItems.keySet());
+        List<Object> results = circuitBreaker.execute(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                byte[][] fields = keyItems.get(key).stream().map(RedisUtil::rawKey).toArray(byte[][]::new);
+                connection.hashCommands().hMGet(rawKey(key), fields);
+            }
+            return null;
+        }, redisTemplate.getHashValueSerializer()));
+        Map<String, List<Object>> values = new LinkedHashMap<>(keys.size() * 2);
+        for (int i = 0; i < keys.size(); i++) {
+            @SuppressWarnings("unchecked")
+            List<Object> items = (List<Object>) results.get(i);
+            values.put(keys.get(i), items);
+        }
+        return values;
+    }
+
+    /**
+     * hash项递增
+     */
+    public long hIncr(String key, String item, long delta) {
+        return circuitBreaker.execute(() -> redisTemplate.opsForHash().increment(key, item, delta));
     }
 
     /**
@@ -156,7 +323,7 @@ public class RedisUtil {
      */
     public boolean hmSet(String key, Map<String, Object> map) {
         try {
-            redisTemplate.opsForHash().putAll(key, map);
+            circuitBreaker.run(() -> redisTemplate.opsForHash().putAll(key, map));
             return true;
         } catch (Exception e) {
             return false;
@@ -165,14 +332,20 @@ public class RedisUtil {
 
     /**
      * 设置hash并过期时间
+     * 写入和设置过期时间在一次脚本调用中完成，只有一次网络往返，不会留下没有过期时间的key
      */
     public boolean hmSet(String key, Map<String, Object> map, long time) {
+        if (map.isEmpty()) {
+            return time <= 0 || expire(key, time);
+        }
         try {
-            redisTemplate.opsForHash().putAll(key, map);
-            if (time > 0) {
-                expire(key, time);
-            }
-            return true;
+            List<byte[]> args = new ArrayList<>(map.size() * 2 + 1);
+            args.add(String.valueOf(time).getBytes(StandardCharsets.UTF_8));
+            map.forEach((item, value) -> {
+                args.add(item.getBytes(StandardCharsets.UTF_8));
+                args.add(serializeHashValue(value));
+            });
+            return Long.valueOf(1L).equals(executeRaw(HM_SET_EXPIRE_SCRIPT, List.of(key), args));
         } catch (Exception e) {
             return false;
         }
@@ -183,7 +356,7 @@ public class RedisUtil {
      */
     public boolean hSet(String key, String item, Object value) {
         try {
-            redisTemplate.opsForHash().put(key, item, value);
+            circuitBreaker.run(() -> redisTemplate.opsForHash().put(key, item, value));
             return true;
         } catch (Exception e) {
             return false;
@@ -195,7 +368,7 @@ public class RedisUtil {
      */
     public boolean hSet(String key, String item, Object value, long expireTime) {
         try {
-            redisTemplate.opsForHash().put(key, item, value);
+            circuitBreaker.run(() -> redisTemplate.opsForHash().put(key, item, value));
             if(expireTime> 0){
                 expire(key, expireTime);
             }
@@ -209,14 +382,14 @@ public class RedisUtil {
      * 删除hash项
      */
     public void hDel(String key, Object... item) {
-        redisTemplate.opsForHash().delete(key, item);
+        circuitBreaker.run(() -> redisTemplate.opsForHash().delete(key, item));
     }
 
     /**
      * 判断hash是否有该项
      */
     public boolean hHasKey(String key, String item) {
-        return redisTemplate.opsForHash().hasKey(key, item);
+        return circuitBreaker.execute(() -> redisTemplate.opsForHash().hasKey(key, item));
     }
 
     // ==================== Set ====================
@@ -226,7 +399,7 @@ public class RedisUtil {
      */
     public Set<Object> sGet(String key) {
         try {
-            return redisTemplate.opsForSet().members(key);
+            return circuitBreaker.execute(() -> redisTemplate.opsForSet().members(key));
         } catch (Exception e) {
             return null;
         }
@@ -237,7 +410,7 @@ public class RedisUtil {
      */
     public boolean sHasKey(String key, Object value) {
         try {
-            return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(key, value));
+            return Boolean.TRUE.equals(circuitBreaker.execute(() -> redisTemplate.opsForSet().isMember(key, value)));
         } catch (Exception e) {
             return false;
         }
@@ -248,12 +421,113 @@ public class RedisUtil {
      */
     public long sSet(String key, Object... values) {
         try {
-            return redisTemplate.opsForSet().add(key, values);
+            return circuitBreaker.execute(() -> redisTemplate.opsForSet().add(key, values));
         } catch (Exception e) {
             return 0;
         }
     }
 
+    // ==================== Pipeline ====================
+
+    /**
+     * 在一个管道中执行多个命令，只有一次网络往返，连接在执行结束后释放
+     * 回调中通过 operations 调用的命令只会入队并返回null，结果按调用顺序返回，值按值的序列化方式解码
+     *
+     * @param action 要执行的命令
+     * @return 每个命令的结果
+     */
+    public List<Object> pipelined(Consumer<RedisOperations<String, Object>> action) {
+        return circuitBreaker.execute(() -> redisTemplate.executePipelined(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                action.accept((RedisOperations<String, Object>) operations);
+                return null;
+            }
+        }));
+    }
+
+    /**
+     * 在一个连接上执行原始命令，用于RedisUtil未封装的命令，连接在执行结束后释放
+     */
+    public <T> T execute(RedisCallback<T> action) {
+        return circuitBreaker.execute(() -> redisTemplate.execute(action));
+    }
+
+    // ==================== Script ====================
+
+    /**
+     * 执行Lua脚本
+     * 参数按字符串传入，与key、hash字段的序列化方式一致
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, List<String> keys, String... args) {
+        return circuitBreaker.execute(() -> redisTemplate.execute(script, RedisSerializer.string(),
+                (RedisSerializer<T>) redisTemplate.getValueSerializer(), keys, (Object[]) args));
+    }
+
+    /**
+     * 执行Lua脚本并写入hash值
+     * args按字符串传入，其后为hashValues的字段、值交替传入，值按hash值的序列化方式编码，脚本可以直接HSET
+     */
+    public <T> T execute(RedisScript<T> script, List<String> keys, List<String> args, Map<String, Object> hashValues) {
+        List<byte[]> rawArgs = new ArrayList<>(args.size() + hashValues.size() * 2);
+        args.forEach(arg -> rawArgs.add(arg.getBytes(StandardCharsets.UTF_8)));
+        hashValues.forEach((item, value) -> {
+            rawArgs.add(item.getBytes(StandardCharsets.UTF_8));
+            rawArgs.add(serializeHashValue(value));
+        });
+        return executeRaw(script, keys, rawArgs);
+    }
+
+    /**
+     * 在一个管道中多次执行同一脚本，只有一次网络往返
+     * 管道开头先加载脚本，之后按SHA执行，不会因脚本未缓存而失败
+     *
+     * @param script 脚本
+     * @param keys   每次执行的key
+     * @param args   每次执行的参数，与keys一一对应
+     * @return 每次执行的结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> executePipelined(RedisScript<T> script, List<List<String>> keys, List<List<String>> args) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        ReturnType returnType = ReturnType.fromJavaType(script.getResultType());
+        byte[] sha = script.getSha1().getBytes(StandardCharsets.UTF_8);
+        List<Object> results = circuitBreaker.execute(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < keys.size(); i++) {
+                List<byte[]> keysAndArgs = new ArrayList<>(keys.get(i).size() + args.get(i).size());
+                keys.get(i).forEach(key -> keysAndArgs.add(key.getBytes(StandardCharsets.UTF_8)));
+                args.get(i).forEach(arg -> keysAndArgs.add(arg.getBytes(StandardCharsets.UTF_8)));
+                connection.scriptingCommands().evalSha(sha, returnType, keys.get(i).size(), keysAndArgs.toArray(new byte[0][]));
+            }
+            return null;
+        }, redisTemplate.getValueSerializer()));
+        // 去掉加载脚本的结果
+        return (List<T>) results.subList(1, results.size());
+    }
+
+    /**
+     * 以原始字节作为参数执行脚本，值参数需预先按hash值的序列化方式编码
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T executeRaw(RedisScript<T> script, List<String> keys, List<byte[]> args) {
+        return circuitBreaker.execute(() -> redisTemplate.execute(script, RedisSerializer.byteArray(),
+                (RedisSerializer<T>) redisTemplate.getValueSerializer(), keys, args.toArray()));
+    }
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeHashValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getHashValueSerializer()).serialize(value);
+    }
+
     // ==================== List ====================
 
     /**
@@ -261,7 +535,7 @@ public class RedisUtil {
      */
     public List<Object> lGet(String key, long start, long end) {
         try {
-            return redisTemplate.opsForList().range(key, start, end);
+            return circuitBreaker.execute(() -> redisTemplate.opsForList().range(key, start, end));
         } catch (Exception e) {
             return null;
         }
@@ -272,7 +546,7 @@ public class RedisUtil {
      */
     public long lLen(String key) {
         try {
-            return redisTemplate.opsForList().size(key);
+            return circuitBreaker.execute(() -> redisTemplate.opsForList().size(key));
         } catch (Exception e) {
             return 0;
         }
@@ -283,7 +557,7 @@ public class RedisUtil {
      */
     public long lSet(String key, Object value) {
         try {
-            return redisTemplate.opsForList().leftPush(key, value);
+            return circuitBreaker.execute(() -> redisTemplate.opsForList().leftPush(key, value));
         } catch (Exception e) {
             return 0;
         }
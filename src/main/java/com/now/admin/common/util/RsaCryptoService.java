@@ -0,0 +1,175 @@
+package com.now.admin.common.util;
+
+import com.now.admin.common.config.SecretKeyConfig;
+import com.now.admin.common.exception.InnerCommonException;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RSA加解密服务
+ * 与 {@link RsaUtil} 的算法一致，但直接使用 {@link SecretKeyConfig} 中已解析的密钥对象，
+ * Cipher、Signature 实例放在无锁对象池中复用，不绑定线程，虚拟线程下同样有效。
+ *
+ * 池中实例记录初始化时使用的密钥，reloadKeys 替换密钥后，旧实例在下次借出时被丢弃重建
+ */
+@Component
+public class RsaCryptoService {
+
+    private static final String TRANSFORMATION = "RSA/ECB/PKCS1Padding";
+
+    private static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+
+    /**
+     * 每个池保留的最大空闲实例数
+     */
+    private static final int MAX_IDLE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    @Resource
+    private SecretKeyConfig secretKeyConfig;
+
+    private final KeyedPool<Cipher> encryptCiphers = new KeyedPool<>(key -> {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, key);
+        return cipher;
+    });
+
+    private final KeyedPool<Cipher> decryptCiphers = new KeyedPool<>(key -> {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key);
+        return cipher;
+    });
+
+    private final KeyedPool<Signature> signers = new KeyedPool<>(key -> {
+        Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM);
+        signature.initSign((PrivateKey) key);
+        return signature;
+    });
+
+    private final KeyedPool<Signature> verifiers = new KeyedPool<>(key -> {
+        Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM);
+        signature.initVerify((PublicKey) key);
+        return signature;
+    });
+
+    /**
+     * 公钥加密
+     *
+     * @param data 待加密的数据
+     * @return Base64编码的加密数据
+     */
+    public String encrypt(String data) throws InnerCommonException {
+        try {
+            byte[] encrypted = encryptCiphers.apply(secretKeyConfig.getPublicKey(),
+                    cipher -> cipher.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+            return Base64.getEncoder().encodeToString(encrypted);
+        } catch (Exception e) {
+            throw new InnerCommonException("RSA公钥加密失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 私钥解密
+     *
+     * @param encryptedData Base64编码的加密数据
+     * @return 解密后的原始数据
+     */
+    public String decrypt(String encryptedData) throws InnerCommonException {
+        try {
+            byte[] encrypted = Base64.getDecoder().decode(encryptedData.trim());
+            byte[] decrypted = decryptCiphers.apply(secretKeyConfig.getPrivateKey(), cipher -> cipher.doFinal(encrypted));
+            return new String(decrypted, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new InnerCommonException("RSA私钥解密失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 私钥签名
+     *
+     * @param data 待签名的数据
+     * @return Base64编码的签名
+     */
+    public String sign(String data) throws InnerCommonException {
+        try {
+            byte[] signBytes = signers.apply(secretKeyConfig.getPrivateKey(), signature -> {
+                signature.update(data.getBytes(StandardCharsets.UTF_8));
+                return signature.sign();
+            });
+            return Base64.getEncoder().encodeToString(signBytes);
+        } catch (Exception e) {
+            throw new InnerCommonException("RSA签名失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 公钥验证签名
+     *
+     * @param data 原始数据
+     * @param sign Base64编码的签名
+     * @return 验证是否通过
+     */
+    public boolean verify(String data, String sign) throws InnerCommonException {
+        try {
+            byte[] signBytes = Base64.getDecoder().decode(sign.trim());
+            return verifiers.apply(secretKeyConfig.getPublicKey(), signature -> {
+                signature.update(data.getBytes(StandardCharsets.UTF_8));
+                return signature.verify(signBytes);
+            });
+        } catch (Exception e) {
+            throw new InnerCommonException("RSA签名验证失败: " + e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface CryptoFunction<T, R> {
+        R apply(T t) throws Exception;
+    }
+
+    /**
+     * 按密钥初始化的实例池
+     * doFinal / sign / verify 完成后实例回到初始化后的状态，可以直接复用；执行失败的实例不放回
+     */
+    private static final class KeyedPool<T> {
+
+        private final CryptoFunction<Key, T> factory;
+
+        private final Queue<Pooled<T>> idle = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger idleCount = new AtomicInteger();
+
+        KeyedPool(CryptoFunction<Key, T> factory) {
+            this.factory = factory;
+        }
+
+        <R> R apply(Key key, CryptoFunction<T, R> operation) throws Exception {
+            Pooled<T> pooled = idle.poll();
+            if (pooled != null) {
+                idleCount.decrementAndGet();
+            }
+            if (pooled == null || pooled.key != key) {
+                pooled = new Pooled<>(key, factory.apply(key));
+            }
+            R result = operation.apply(pooled.instance);
+            if (idleCount.incrementAndGet() <= MAX_IDLE) {
+                idle.offer(pooled);
+            } else {
+                idleCount.decrementAndGet();
+            }
+            return result;
+        }
+    }
+
+    private record Pooled<T>(Key key, T instance) {
+    }
+}
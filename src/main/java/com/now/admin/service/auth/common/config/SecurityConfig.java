@@ -1,13 +1,22 @@
 package com.now.admin.service.auth.common.config;
 
+import com.now.admin.common.annotation.RequiresPerms;
 import com.now.admin.service.auth.common.security.*;
-import com.now.admin.service.auth.service.impl.TokenService;
+import com.now.admin.service.auth.service.impl.LoginSessionService;
 import jakarta.annotation.Resource;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.Pointcuts;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Role;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -40,17 +49,23 @@ public class SecurityConfig {
     private JwtAccessDeniedHandler jwtAccessDeniedHandler;
 
     @Resource
-    private TokenService tokenService;
+    private LoginSessionService loginSessionService;
+
+    /**
+     * bcrypt成本（log2轮数）
+     */
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         // 登录过滤器
         LoginAuthenticationFilter loginFilter = new LoginAuthenticationFilter(authenticationManager());
-        loginFilter.setTokenService(tokenService);
+        loginFilter.setLoginSessionService(loginSessionService);
 
         http
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers("/public/**", "/auth/register", "/auth/login", "/auth/sms/**").permitAll()
+                        .requestMatchers("/public/**", "/auth/register", "/auth/login", "/auth/refresh", "/auth/sms/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
                         .requestMatchers("/admin/**").hasRole("SYS_ADMIN")
                         .requestMatchers("/common/get/public-key").permitAll()
@@ -73,15 +88,50 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * {@link RequiresPerms} 方法级权限校验，标注在方法或类上均生效
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor requiresPermsAdvisor(ObjectProvider<PermissionRegistry> permissionRegistry) {
+        return new AuthorizationManagerBeforeMethodInterceptor(
+                Pointcuts.union(new AnnotationMatchingPointcut(null, RequiresPerms.class, true),
+                        new AnnotationMatchingPointcut(RequiresPerms.class, true)),
+                new PermissionMethodAuthorizationManager(permissionRegistry));
+    }
+
     @Bean
     public AuthenticationManager authenticationManager() {
         return new ProviderManager(List.of(customAuthenticationProvider));
     }
 
+    /**
+     * 密码编码器
+     * 默认算法为bcrypt，成本由 security.password.bcrypt-strength 指定；
+     * 哈希的成本与配置不一致（调高或调低）时 upgradeEncoding 返回true，登录成功后重新编码
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
+        int strength = bcryptStrength;
         Map<String, PasswordEncoder> encoders = new HashMap<>();
-        encoders.put("bcrypt", new BCryptPasswordEncoder());
+        encoders.put("bcrypt", new BCryptPasswordEncoder(strength) {
+            @Override
+            protected boolean upgradeEncodingNonNull(String encodedPassword) {
+                return super.upgradeEncodingNonNull(encodedPassword) || bcryptCost(encodedPassword) > strength;
+            }
+        });
         return new DelegatingPasswordEncoder("bcrypt", encoders);
     }
+
+    /**
+     * 解析bcrypt哈希中的成本，格式为 $2a$10$...，无法解析时返回-1
+     */
+    private static int bcryptCost(String encodedPassword) {
+        String[] parts = encodedPassword.split("\\$", 4);
+        try {
+            return parts.length == 4 ? Integer.parseInt(parts[2]) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
 }
\ No newline at end of file
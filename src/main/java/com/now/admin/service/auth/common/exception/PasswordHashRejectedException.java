@@ -0,0 +1,15 @@
+package com.now.admin.service.auth.common.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * 密码校验排队已满或等待超时
+ * 属于认证异常，由登录过滤器转换为429响应，而不是按密码错误处理
+ */
+public class PasswordHashRejectedException extends AuthenticationServiceException {
+
+    public PasswordHashRejectedException(String message) {
+        super(message);
+    }
+
+}
@@ -6,6 +6,7 @@ import com.now.admin.common.exception.InnerCommonException;
 import com.now.admin.service.auth.domain.LoginUserDetail;
 import com.now.admin.service.auth.domain.SysUserAuth;
 import com.now.admin.service.auth.service.AuthService;
+import com.now.admin.service.auth.service.impl.PasswordHashService;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
@@ -14,7 +15,6 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.util.Objects;
@@ -32,7 +32,7 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
     private AuthService authService;
 
     @Resource
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashService passwordHashService;
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
@@ -60,8 +60,10 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
                         AppStatusEnum.SERVER_ERROR.getMessage());
             }
             SystemStatusConstant.validStatus(loginUser.getStatus());
-            // 密码匹配
-            if (passwordEncoder.matches(secret, sysUserAuth.getCredential())) {
+            // 密码匹配，在专用线程池中校验
+            if (passwordHashService.matches(secret, sysUserAuth.getCredential())) {
+                // 哈希成本或算法与当前配置不一致时重新编码
+                passwordHashService.rehashIfNeeded(sysUserAuth, secret);
                 UsernamePasswordAuthenticationToken passwordAuthenticationToken = new UsernamePasswordAuthenticationToken(loginUser, null, loginUser.getAuthorities());
                 passwordAuthenticationToken.setDetails(loginUser);
                 return passwordAuthenticationToken;
@@ -30,7 +30,7 @@ public class JwtAccessDeniedHandler implements AccessDeniedHandler {
 
         Result<String> result = Result.fail(AppStatusEnum.FORBIDDEN.getCode(),
                 AppStatusEnum.FORBIDDEN.getMessage());
-        outputStream.write(Objects.requireNonNull(JsonUtil.toJson(response)).getBytes(StandardCharsets.UTF_8));
+        outputStream.write(Objects.requireNonNull(JsonUtil.toJson(result)).getBytes(StandardCharsets.UTF_8));
         outputStream.flush();
         outputStream.close();
     }
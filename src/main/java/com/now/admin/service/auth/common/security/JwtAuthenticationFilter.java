@@ -1,13 +1,14 @@
 package com.now.admin.service.auth.common.security;
 
 import com.now.admin.common.constant.AppStatusEnum;
-import com.now.admin.common.constant.RedisKeyConstant;
 import com.now.admin.common.domain.Result;
+import com.now.admin.common.exception.RedisUnavailableException;
 import com.now.admin.common.util.JsonUtil;
-import com.now.admin.common.util.RedisUtil;
 import com.now.admin.service.auth.common.exception.AuthenticateException;
 import com.now.admin.service.auth.domain.LoginUserDetail;
+import com.now.admin.service.auth.domain.ParsedToken;
 import com.now.admin.service.auth.service.AuthService;
+import com.now.admin.service.auth.service.impl.LoginSessionService;
 import com.now.admin.service.auth.service.impl.TokenService;
 import jakarta.annotation.Resource;
 import jakarta.servlet.FilterChain;
@@ -22,6 +23,8 @@ import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -46,11 +49,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private AuthService authService;
 
     @Resource
-    private RedisUtil redisUtil;
+    private LoginSessionService loginSessionService;
 
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String TOKEN_PREFIX = "Bearer ";
 
+    /**
+     * 刷新Token接口只凭请求体中的刷新Token换取新Token，不解析请求头；
+     * 客户端通常带着已过期的访问Token调用，解析请求头会直接返回Token已过期
+     */
+    private static final RequestMatcher REFRESH_REQUEST = PathPatternRequestMatcher.withDefaults().matcher("/auth/refresh");
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return REFRESH_REQUEST.matches(request);
+    }
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -75,11 +89,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
 
-            // 验证token
-            tokenService.validateToken(token);
+            // 验证token，只验签一次
+            ParsedToken parsedToken = tokenService.parseToken(token);
+            // 刷新Token只能用于换取新Token
+            if (parsedToken.isRefreshToken()) {
+                responseError(response, AppStatusEnum.VALIDATE_TOKEN_FAIL.getCode(), AppStatusEnum.VALIDATE_TOKEN_FAIL.getMessage());
+                return;
+            }
 
-            Long userId = tokenService.getUserIdFromToken(token);
-            String loginFlag = tokenService.getLoginFlagFromToken(token);
+            Long userId = parsedToken.getUserId();
+            String loginFlag = parsedToken.getLoginFlag();
             if(Objects.isNull(userId) || !StringUtils.hasText(loginFlag)){
                 responseError(response, AppStatusEnum.UNAUTHORIZED.getCode(), "Token 不能为空");
                 return;
@@ -88,13 +107,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 log.debug("登录用户{}，logFlag:{}", userId, loginFlag);
             }
 
-            Object object = redisUtil.hGet(RedisKeyConstant.LOGIN_USER_PREFIX + userId, loginFlag);
-            if(Objects.isNull(object)){
+            Optional<LoginUserDetail> session = loginSessionService.getSession(userId, loginFlag);
+            if(session.isEmpty()){
                 responseError(response, AppStatusEnum.UNAUTHORIZED.getCode(), "登录过期");
                 return;
             }
 
-            LoginUserDetail userInfo = (LoginUserDetail)  object;
+            LoginUserDetail userInfo = session.get();
 
             // 7. 构造认证对象（✅ 放完整用户对象）
             UsernamePasswordAuthenticationToken authenticationToken =
@@ -112,6 +131,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         } catch (AuthenticateException ae) {
             responseError(response, ae.getCode(),ae.getMessage());
+        } catch (RedisUnavailableException re) {
+            // Redis不可用且本地没有会话副本，返回503而不是401，客户端不会因此丢弃Token
+            log.warn("Redis不可用，无法校验会话: {}", re.getMessage());
+            responseError(response, re.getCode(), re.getMessage());
         } finally {
             // ✅【关键】请求结束清空上下文
             SecurityContextHolder.clearContext();
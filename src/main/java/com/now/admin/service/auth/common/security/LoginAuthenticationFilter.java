@@ -1,15 +1,15 @@
 package com.now.admin.service.auth.common.security;
 
-import com.now.admin.common.config.SecretKeyConfig;
-import com.now.admin.common.constant.RedisKeyConstant;
+import com.now.admin.common.constant.AppStatusEnum;
 import com.now.admin.common.domain.Result;
 import com.now.admin.common.domain.vo.LoginRsp;
 import com.now.admin.common.exception.InnerCommonException;
 import com.now.admin.common.util.*;
 import com.now.admin.service.auth.common.exception.AuthenticateException;
+import com.now.admin.service.auth.common.exception.PasswordHashRejectedException;
 import com.now.admin.service.auth.domain.LoginUserDetail;
 import com.now.admin.service.auth.domain.param.LoginUserParam;
-import com.now.admin.service.auth.service.impl.TokenService;
+import com.now.admin.service.auth.service.impl.LoginSessionService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -28,13 +28,11 @@ import java.util.UUID;
 public class LoginAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
     @Setter
-    private TokenService tokenService;
+    private LoginSessionService loginSessionService;
 
     private final static JsonMapper jsonMapper = SpringUtil.getBean(JsonMapper.class);
 
-    private final static RedisUtil redisUtil = SpringUtil.getBean(RedisUtil.class);
-
-    private final SecretKeyConfig secretKeyConfig = SpringUtil.getBean(SecretKeyConfig.class);
+    private final RsaCryptoService rsaCryptoService = SpringUtil.getBean(RsaCryptoService.class);
 
     public static final Long LONG_USER_EXPIRE_TIME = 60 * 24 * 7L  ;
 
@@ -54,7 +52,7 @@ public class LoginAuthenticationFilter extends UsernamePasswordAuthenticationFil
         try {
             // 读取 JSON
             LoginUserParam param = jsonMapper.readValue(request.getInputStream(), LoginUserParam.class);
-            param.setSecret(RsaUtil.decrypt(param.getSecret(),secretKeyConfig.getPrivateKeyStr()));
+            param.setSecret(rsaCryptoService.decrypt(param.getSecret()));
             // 创建 Token（支持你的多类型登录）
             Authentication authToken;
             if (param.getType() == LoginUserParam.LoginTypeEnum.PASSWORD) {
@@ -81,18 +79,10 @@ public class LoginAuthenticationFilter extends UsernamePasswordAuthenticationFil
             throw new AuthenticateException("认证失败");
         }
 
-        LoginDeviceInfoUtil.deviceInfo loginInfo = LoginDeviceInfoUtil.getLoginInfo(request);
-        details.setDeviceInfo(loginInfo);
-        // 生成登录标识码
-        String loginFlag = UUIDUtil.shortUUID();
-        // 缓存登录用户
-        redisUtil.hSet(RedisKeyConstant.LOGIN_USER_PREFIX +details.getId(), loginFlag, details, LONG_USER_EXPIRE_TIME);
-        // 响应信息
-        LoginRsp rsp = LoginRsp.builder()
-                .userId(details.getId())
-                .token(tokenService.generateToken(details.getId(), loginFlag))
-                .refreshToken(tokenService.generateRefreshToken(details.getId(), loginFlag))
-                .build();
+        // 只读取IP和User-Agent，解析在登录后置处理中完成
+        details.setDeviceInfo(LoginDeviceInfoUtil.getClientInfo(request));
+        // 缓存登录用户并签发Token
+        LoginRsp rsp = loginSessionService.createSession(details, LONG_USER_EXPIRE_TIME);
         // 返回 JSON
         response.setContentType("application/json;charset=utf-8");
         try {
@@ -107,9 +97,16 @@ public class LoginAuthenticationFilter extends UsernamePasswordAuthenticationFil
     @Override
     protected void unsuccessfulAuthentication(HttpServletRequest request, HttpServletResponse response, AuthenticationException failed) {
         response.setContentType("application/json;charset=utf-8");
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED); // 401
         try {
-            Result<LoginRsp> result = Result.fail(401, "账号或密码不正确");
+            Result<LoginRsp> result;
+            if (failed instanceof PasswordHashRejectedException) {
+                // 密码校验繁忙，客户端稍后重试
+                response.setStatus(AppStatusEnum.TOO_MANY_REQUESTS.getCode());
+                result = Result.fail(AppStatusEnum.TOO_MANY_REQUESTS.getCode(), AppStatusEnum.TOO_MANY_REQUESTS.getMessage());
+            } else {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED); // 401
+                result = Result.fail(401, "账号或密码不正确");
+            }
             jsonMapper.writeValue(response.getOutputStream(), result);
         } catch (IOException e) {
             throw new RuntimeException(e);
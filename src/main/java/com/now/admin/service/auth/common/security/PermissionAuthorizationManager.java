@@ -0,0 +1,76 @@
+package com.now.admin.service.auth.common.security;
+
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import com.now.admin.service.auth.domain.PermissionBits;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * 基于权限位图的授权管理器
+ * 所需权限在创建时编译为位图掩码，校验时只做位运算，不分配对象
+ *
+ * 路由示例：.requestMatchers("/sys/user/**").access(PermissionAuthorizationManager.anyOf(registry, "sys:user:list", "sys:user:query"))
+ */
+public final class PermissionAuthorizationManager<T> implements AuthorizationManager<T> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    /**
+     * 所需权限掩码
+     */
+    private final PermissionBits mask;
+
+    /**
+     * true=需要全部权限，false=需要任一权限
+     */
+    private final boolean requireAll;
+
+    private final String description;
+
+    private PermissionAuthorizationManager(PermissionBits mask, boolean requireAll, String description) {
+        this.mask = mask;
+        this.requireAll = requireAll;
+        this.description = description;
+    }
+
+    /**
+     * 需要全部权限
+     */
+    public static <T> PermissionAuthorizationManager<T> allOf(PermissionRegistry registry, String... perms) {
+        return new PermissionAuthorizationManager<>(registry.encode(Arrays.asList(perms)), true,
+                "allOf" + Arrays.toString(perms));
+    }
+
+    /**
+     * 需要任一权限
+     */
+    public static <T> PermissionAuthorizationManager<T> anyOf(PermissionRegistry registry, String... perms) {
+        return new PermissionAuthorizationManager<>(registry.encode(Arrays.asList(perms)), false,
+                "anyOf" + Arrays.toString(perms));
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<? extends Authentication> authentication, T object) {
+        return check(authentication.get()) ? GRANTED : DENIED;
+    }
+
+    public boolean check(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof LoginUserDetail loginUser)) {
+            return false;
+        }
+        PermissionBits permBits = loginUser.getPermBits();
+        return requireAll ? permBits.containsAll(mask) : permBits.intersects(mask);
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
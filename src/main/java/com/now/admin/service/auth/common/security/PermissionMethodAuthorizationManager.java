@@ -0,0 +1,66 @@
+package com.now.admin.service.auth.common.security;
+
+import com.now.admin.common.annotation.RequiresPerms;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link RequiresPerms} 方法级授权管理器
+ * 每个方法的权限要求只编译一次，之后的调用只做位运算；
+ * 继承或接口方法在不同的目标类上可能有不同的类级注解，编译结果按方法和目标类缓存
+ */
+public class PermissionMethodAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private final ObjectProvider<PermissionRegistry> registryProvider;
+
+    /**
+     * 已编译的方法权限要求，key为方法和目标类
+     */
+    private final Map<MethodClassKey, PermissionAuthorizationManager<MethodInvocation>> compiled = new ConcurrentHashMap<>();
+
+    public PermissionMethodAuthorizationManager(ObjectProvider<PermissionRegistry> registryProvider) {
+        this.registryProvider = registryProvider;
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<? extends Authentication> authentication, MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Object target = invocation.getThis();
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : null;
+        MethodClassKey cacheKey = new MethodClassKey(method, targetClass);
+        PermissionAuthorizationManager<MethodInvocation> manager = compiled.get(cacheKey);
+        if (manager == null) {
+            manager = compiled.computeIfAbsent(cacheKey, key -> compile(method, targetClass));
+        }
+        return manager.authorize(authentication, invocation);
+    }
+
+    /**
+     * 先查找目标类上最具体的方法（含其覆盖的父类、接口方法）的注解，再查找目标类的注解
+     */
+    private PermissionAuthorizationManager<MethodInvocation> compile(Method method, Class<?> targetClass) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        RequiresPerms requiresPerms = AnnotatedElementUtils.findMergedAnnotation(specificMethod, RequiresPerms.class);
+        if (requiresPerms == null && targetClass != null) {
+            requiresPerms = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequiresPerms.class);
+        }
+        PermissionRegistry registry = registryProvider.getObject();
+        if (requiresPerms == null) {
+            return PermissionAuthorizationManager.allOf(registry);
+        }
+        return requiresPerms.logical() == RequiresPerms.Logical.ALL
+                ? PermissionAuthorizationManager.allOf(registry, requiresPerms.value())
+                : PermissionAuthorizationManager.anyOf(registry, requiresPerms.value());
+    }
+}
@@ -0,0 +1,67 @@
+package com.now.admin.service.auth.common.security;
+
+import com.now.admin.service.auth.domain.PermissionBits;
+import com.now.admin.service.sys.provider.SysMenuProvider;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 权限注册表
+ * 为每个权限标识分配连续的整数ID，用于构建权限位图；
+ * 启动时预先注册 sys_menu 中的全部权限，之后出现的新权限按需追加，已分配的ID不会改变
+ */
+@Slf4j
+@Component
+public class PermissionRegistry {
+
+    @Resource
+    private SysMenuProvider sysMenuProvider;
+
+    /**
+     * 权限标识 -> ID
+     */
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        try {
+            new TreeSet<>(sysMenuProvider.listPerms()).forEach(this::idOf);
+            log.info("权限注册表加载完成，共{}个权限", ids.size());
+        } catch (Exception e) {
+            // 加载失败不影响启动，权限在使用时注册
+            log.warn("权限注册表预加载失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取权限ID，未注册的权限分配新ID
+     */
+    public int idOf(String perm) {
+        Integer id = ids.get(perm);
+        return id != null ? id : ids.computeIfAbsent(perm, key -> nextId.getAndIncrement());
+    }
+
+    /**
+     * 将权限标识编码为位图
+     */
+    public PermissionBits encode(Collection<String> perms) {
+        if (perms == null || perms.isEmpty()) {
+            return PermissionBits.EMPTY;
+        }
+        return PermissionBits.of(perms.stream().mapToInt(this::idOf).toArray());
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
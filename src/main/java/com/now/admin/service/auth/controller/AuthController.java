@@ -1,10 +1,14 @@
 package com.now.admin.service.auth.controller;
 
+import com.now.admin.common.annotation.RateLimit;
+import com.now.admin.common.annotation.RequiresPerms;
 import com.now.admin.common.domain.Result;
 import com.now.admin.common.domain.vo.LoginRsp;
 import com.now.admin.service.auth.domain.param.LoginUserParam;
+import com.now.admin.service.auth.domain.param.RefreshTokenParam;
 import com.now.admin.service.auth.domain.param.RegisterUserParam;
 import com.now.admin.service.auth.domain.param.SendSmsCodeParam;
+import com.now.admin.service.auth.domain.param.SessionRevokeParam;
 import com.now.admin.service.auth.service.AuthService;
 import com.now.admin.service.auth.service.SmsCodeService;
 import com.now.admin.service.auth.util.SecurityContextUtil;
@@ -22,6 +26,9 @@ public class AuthController {
     @Resource
     private SmsCodeService smsCodeService;
 
+    @Resource
+    private AuthService authService;
+
     @Operation(summary = "用户注册", description = "通过用户名密码注册新用户")
     @PostMapping("/register")
     public Result<String> registerUser(@RequestBody RegisterUserParam registerUserParam) {
@@ -42,4 +49,25 @@ public class AuthController {
         // 测试环境返回验证码，生产环境不应返回
         return Result.success("验证码已发送，测试码: " + code);
     }
+
+    @Operation(summary = "刷新Token", description = "使用刷新Token换取新的访问Token和刷新Token，旧Token随即失效")
+    @RateLimit(keyPrefix = "auth:refresh", seconds = 60, maxCount = 30, type = RateLimit.LimitType.IP)
+    @PostMapping("/refresh")
+    public Result<LoginRsp> refresh(@Valid @RequestBody RefreshTokenParam param) {
+        return Result.success(authService.refresh(param.getRefreshToken()));
+    }
+
+    @Operation(summary = "退出登录", description = "注销当前会话")
+    @PostMapping("/logout")
+    public Result<String> logout() {
+        authService.logout();
+        return Result.success();
+    }
+
+    @Operation(summary = "批量下线", description = "删除指定用户、指定角色下所有用户的会话")
+    @RequiresPerms("sys:session:revoke")
+    @PostMapping("/session/revoke")
+    public Result<Long> revokeSessions(@RequestBody SessionRevokeParam param) {
+        return Result.success(authService.revokeSessions(param));
+    }
 }
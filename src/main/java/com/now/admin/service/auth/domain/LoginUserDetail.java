@@ -1,6 +1,8 @@
 package com.now.admin.service.auth.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.now.admin.common.util.LoginDeviceInfoUtil;
 import lombok.Data;
 import org.jspecify.annotations.Nullable;
@@ -15,8 +17,10 @@ import java.util.Set;
 
 /**
  * 登录用户，认证后存储在SecurityContextHolder中的对象
+ * UserDetails的派生属性不写入会话
  */
 @Data
+@JsonIgnoreProperties({"password", "accountNonExpired", "accountNonLocked", "credentialsNonExpired", "enabled"})
 public class LoginUserDetail implements UserDetails {
 
     /**
@@ -51,15 +55,46 @@ public class LoginUserDetail implements UserDetails {
     private SysUserAuth sysUserAuth;
 
     /**
-     * 用户权限信息
+     * 用户权限信息，登录时填充；会话中只存储共享权限集ID，不单独序列化
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private Set<String> perms;
 
     /**
-     * 用户角色信息
+     * 用户角色信息，同上
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private Set<String> roles;
 
+    /**
+     * 用户角色ID，登录时填充，用于解析角色标识和权限，不写入会话
+     */
+    @JsonIgnore
+    private Set<Long> roleIds;
+
+    /**
+     * 共享权限集ID
+     */
+    private String permSetId;
+
+    /**
+     * 共享权限集，加载会话时按permSetId关联
+     */
+    @JsonIgnore
+    private PermissionSet permissionSet;
+
+    /**
+     * 当前会话的登录标识，加载会话时填充，不写入会话
+     */
+    @JsonIgnore
+    private String loginFlag;
+
+    /**
+     * 当前会话的过期时间（毫秒时间戳），加载会话时填充，不写入会话；历史会话为null
+     */
+    @JsonIgnore
+    private Long expireAt;
+
     /**
      * 用户登录设备信息
      */
@@ -67,8 +102,32 @@ public class LoginUserDetail implements UserDetails {
     private LoginDeviceInfoUtil.deviceInfo deviceInfo;
 
 
+    public Set<String> getPerms() {
+        return permissionSet != null ? permissionSet.getPerms() : perms;
+    }
+
+    public Set<String> getRoles() {
+        return permissionSet != null ? permissionSet.getRoles() : roles;
+    }
+
+    public void setPermissionSet(PermissionSet permissionSet) {
+        this.permissionSet = permissionSet;
+        this.permSetId = permissionSet == null ? null : permissionSet.getId();
+    }
+
+    /**
+     * 权限位图，未关联权限集时为空
+     */
+    @JsonIgnore
+    public PermissionBits getPermBits() {
+        return permissionSet != null ? permissionSet.getPermBits() : PermissionBits.EMPTY;
+    }
+
+    @JsonIgnore
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
+        // 共享权限集的授权集合是预先构建的不可变集合
+        if (permissionSet != null) return permissionSet.getAuthorities();
         if (perms == null) return Collections.emptyList();
         // 把 "sys:user:list" 转成 SimpleGrantedAuthority
         return perms.stream()
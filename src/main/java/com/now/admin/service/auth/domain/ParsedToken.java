@@ -0,0 +1,69 @@
+package com.now.admin.service.auth.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * 已验签的Token
+ * 一次验签解析后得到的全部声明，避免同一请求多次解析Token
+ */
+@Getter
+@AllArgsConstructor
+public class ParsedToken {
+
+    /**
+     * 访问Token
+     */
+    public static final String TYPE_ACCESS = "access";
+
+    /**
+     * 刷新Token
+     */
+    public static final String TYPE_REFRESH = "refresh";
+
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 登录标识
+     */
+    private final String loginFlag;
+
+    /**
+     * 签发时间
+     */
+    private final Date issuedAt;
+
+    /**
+     * 过期时间
+     */
+    private final Date expiration;
+
+    /**
+     * 签发Token的密钥ID
+     */
+    private final String kid;
+
+    /**
+     * Token类型，未携带类型的历史Token为空，按访问Token处理
+     */
+    private final String tokenType;
+
+    /**
+     * 是否已过期
+     */
+    public boolean isExpired() {
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    /**
+     * 是否为刷新Token，刷新Token只能用于换取新Token，不能访问接口
+     */
+    public boolean isRefreshToken() {
+        return TYPE_REFRESH.equals(tokenType);
+    }
+}
@@ -0,0 +1,89 @@
+package com.now.admin.service.auth.domain;
+
+import java.util.Arrays;
+
+/**
+ * 权限位图
+ * 第n位表示 PermissionRegistry 中ID为n的权限，不可变；
+ * 位图只在当前JVM内有效，不写入Redis
+ */
+public final class PermissionBits {
+
+    public static final PermissionBits EMPTY = new PermissionBits(new long[0]);
+
+    private final long[] words;
+
+    private PermissionBits(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * 由权限ID构建位图
+     */
+    public static PermissionBits of(int... ids) {
+        int max = -1;
+        for (int id : ids) {
+            max = Math.max(max, id);
+        }
+        if (max < 0) {
+            return EMPTY;
+        }
+        long[] words = new long[(max >> 6) + 1];
+        for (int id : ids) {
+            words[id >> 6] |= 1L << id;
+        }
+        return new PermissionBits(words);
+    }
+
+    /**
+     * 是否包含mask中的全部权限
+     */
+    public boolean containsAll(PermissionBits mask) {
+        long[] required = mask.words;
+        for (int i = 0; i < required.length; i++) {
+            long word = i < words.length ? words[i] : 0L;
+            if ((word & required[i]) != required[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否包含mask中的任一权限
+     */
+    public boolean intersects(PermissionBits mask) {
+        long[] required = mask.words;
+        int length = Math.min(words.length, required.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & required[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean contains(int id) {
+        int index = id >> 6;
+        return index < words.length && (words[index] & (1L << id)) != 0;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PermissionBits other && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+}
@@ -0,0 +1,65 @@
+package com.now.admin.service.auth.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 共享权限集
+ * 相同角色、权限组合的用户共用一个权限集，Redis中只存储一份，会话通过ID引用；
+ * 每个JVM中同一ID只保留一个不可变实例，鉴权时直接返回预先构建的授权集合；
+ * 权限位图由本地的 PermissionRegistry 编码，只在当前JVM内有效，不写入Redis
+ */
+@Getter
+public class PermissionSet {
+
+    /**
+     * 权限集ID，由角色和权限内容计算得到
+     */
+    private final String id;
+
+    /**
+     * 角色标识
+     */
+    private final Set<String> roles;
+
+    /**
+     * 权限标识
+     */
+    private final Set<String> perms;
+
+    /**
+     * 预先构建的授权集合
+     */
+    @JsonIgnore
+    private final List<GrantedAuthority> authorities;
+
+    /**
+     * 权限位图
+     */
+    @JsonIgnore
+    private final PermissionBits permBits;
+
+    @JsonCreator
+    public PermissionSet(@JsonProperty("id") String id,
+                         @JsonProperty("roles") Set<String> roles,
+                         @JsonProperty("perms") Set<String> perms) {
+        this(id, roles, perms, PermissionBits.EMPTY);
+    }
+
+    public PermissionSet(String id, Set<String> roles, Set<String> perms, PermissionBits permBits) {
+        this.id = id;
+        this.permBits = permBits;
+        this.roles = roles == null ? Set.of() : Set.copyOf(roles);
+        this.perms = perms == null ? Set.of() : Set.copyOf(perms);
+        this.authorities = this.perms.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+}
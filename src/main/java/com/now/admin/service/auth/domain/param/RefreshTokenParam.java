@@ -0,0 +1,17 @@
+package com.now.admin.service.auth.domain.param;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * 刷新Token参数
+ */
+@Data
+public class RefreshTokenParam {
+
+    /**
+     * 登录或上次刷新时返回的刷新Token
+     */
+    @NotBlank(message = "刷新Token不能为空")
+    private String refreshToken;
+}
@@ -0,0 +1,22 @@
+package com.now.admin.service.auth.domain.param;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量下线参数，用户和角色至少指定一项
+ */
+@Data
+public class SessionRevokeParam {
+
+    /**
+     * 需要下线的用户ID
+     */
+    private List<Long> userIds;
+
+    /**
+     * 需要下线的角色ID，持有这些角色且存在会话的用户全部下线
+     */
+    private List<Long> roleIds;
+}
@@ -1,7 +1,9 @@
 package com.now.admin.service.auth.mapper;
 
+import com.now.admin.service.auth.domain.LoginUserDetail;
 import com.now.admin.service.auth.domain.SysUserAuth;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 
 /**
 * @author zhaixinwei
@@ -11,6 +13,21 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface SysUserAuthMapper extends BaseMapper<SysUserAuth> {
 
+    /**
+     * 按认证标识查询登录用户，认证信息、用户信息、角色和权限一次查询
+     *
+     * @param identifier 认证标识（账号、手机号等）
+     * @return 登录用户，不存在时返回null
+     */
+    LoginUserDetail selectLoginUserByIdentifier(@Param("identifier") String identifier);
+
+    /**
+     * 按用户ID查询登录用户，用户有多个认证方式时取最早的一个
+     *
+     * @param userId 用户ID
+     * @return 登录用户，不存在时返回null
+     */
+    LoginUserDetail selectLoginUserByUserId(@Param("userId") Long userId);
 }
 
 
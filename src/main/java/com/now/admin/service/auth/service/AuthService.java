@@ -3,6 +3,7 @@ package com.now.admin.service.auth.service;
 import com.now.admin.common.domain.vo.LoginRsp;
 import com.now.admin.service.auth.domain.LoginUserDetail;
 import com.now.admin.service.auth.domain.param.LoginUserParam;
+import com.now.admin.service.auth.domain.param.SessionRevokeParam;
 import org.springframework.validation.annotation.Validated;
 
 import java.util.Optional;
@@ -33,4 +34,25 @@ public interface AuthService {
      */
     Optional<LoginUserDetail> loadUserById(Long userId);
 
+    /**
+     * 使用刷新Token换取新的访问Token和刷新Token，不访问数据库
+     *
+     * @param refreshToken 刷新Token
+     * @return 新的Token
+     */
+    LoginRsp refresh(String refreshToken);
+
+    /**
+     * 注销当前会话
+     */
+    void logout();
+
+    /**
+     * 批量下线用户
+     *
+     * @param param 用户ID、角色ID
+     * @return 实际下线的用户数
+     */
+    long revokeSessions(SessionRevokeParam param);
+
 }
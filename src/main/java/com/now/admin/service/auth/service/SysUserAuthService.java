@@ -1,9 +1,12 @@
 package com.now.admin.service.auth.service;
 
+import com.now.admin.service.auth.domain.LoginUserDetail;
 import com.now.admin.service.auth.domain.SysUserAuth;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.now.admin.service.sys.domain.SysUser;
 
+import java.util.Optional;
+
 /**
 * @author zhaixinwei
 * @description 针对表【sys_user_auth(用户认证信息)】的数据库操作Service
@@ -11,5 +14,27 @@ import com.now.admin.service.sys.domain.SysUser;
 */
 public interface SysUserAuthService extends IService<SysUserAuth> {
 
+    /**
+     * 按认证标识加载登录用户（含认证信息、角色和权限），只访问一次数据库
+     * @param identifier 认证标识
+     * @return 登录用户
+     */
+    Optional<LoginUserDetail> loadLoginUserByIdentifier(String identifier);
+
+    /**
+     * 按用户ID加载登录用户（含认证信息、角色和权限），只访问一次数据库
+     * @param userId 用户ID
+     * @return 登录用户
+     */
+    Optional<LoginUserDetail> loadLoginUserByUserId(Long userId);
+
+    /**
+     * 替换登录凭证，只有当前凭证仍为oldCredential时才更新
+     * @param id            认证ID
+     * @param oldCredential 原凭证
+     * @param newCredential 新凭证
+     * @return 是否更新成功
+     */
+    boolean updateCredential(Long id, String oldCredential, String newCredential);
 
 }
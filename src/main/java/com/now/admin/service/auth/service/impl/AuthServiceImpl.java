@@ -1,28 +1,31 @@
 package com.now.admin.service.auth.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.now.admin.common.domain.vo.LoginRsp;
+import com.now.admin.common.exception.CommonException;
 import com.now.admin.service.auth.common.exception.AuthenticateException;
 import com.now.admin.service.auth.common.security.CustomPhoneCodeAuthenticationToken;
+import com.now.admin.service.auth.common.security.LoginAuthenticationFilter;
 import com.now.admin.service.auth.domain.LoginUserDetail;
-import com.now.admin.service.auth.domain.SysUserAuth;
 import com.now.admin.service.auth.domain.param.LoginUserParam;
+import com.now.admin.service.auth.domain.param.SessionRevokeParam;
 import com.now.admin.service.auth.service.AuthService;
 import com.now.admin.service.auth.service.SysUserAuthService;
-import com.now.admin.service.sys.domain.SysUser;
-import com.now.admin.service.sys.provider.SysUserProvider;
-import com.now.admin.service.sys.service.SysUserService;
+import com.now.admin.service.auth.util.SecurityContextUtil;
+import com.now.admin.service.sys.provider.SysRoleProvider;
 
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
-import java.util.Map;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -34,13 +37,13 @@ public class AuthServiceImpl implements AuthService {
     private SysUserAuthService sysUserAuthService;
 
     @Resource
-    private SysUserProvider sysUserProvider;
+    private AuthenticationManager authenticationManager;
 
     @Resource
-    private AuthenticationManager authenticationManager;
+    private LoginSessionService loginSessionService;
 
     @Resource
-    private TokenService tokenService;
+    private SysRoleProvider sysRoleProvider;
 
     @Override
     public LoginRsp authenticate(LoginUserParam loginUserParam) {
@@ -72,11 +75,7 @@ public class AuthServiceImpl implements AuthService {
                 throw new AuthenticateException("认证失败");
             }
             // todo 异步任务记录登录日志
-            return LoginRsp.builder()
-                    .userId(details.getId())
-                    .token(tokenService.generateToken(details.getId(),""))
-                    .refreshToken(tokenService.generateRefreshToken(details.getId(), ""))
-                    .build();
+            return loginSessionService.createSession(details, LoginAuthenticationFilter.LONG_USER_EXPIRE_TIME);
         }
         throw new AuthenticateException("认证失败");
     }
@@ -86,38 +85,8 @@ public class AuthServiceImpl implements AuthService {
         if (account.isBlank()) {
             return Optional.empty();
         }
-        LoginUserDetail loginUser = new LoginUserDetail();
-        // 查询认证信息
-        SysUserAuth sysUserAuth = sysUserAuthService.getOne(
-                new LambdaQueryWrapper<SysUserAuth>().eq(SysUserAuth::getIdentifier, account));
-        if (sysUserAuth == null) {
-            return Optional.empty();
-        }
-        // 查询用户信息
-        Long userId = sysUserAuth.getUserId();
-        Optional<SysUser> sysUserOptional = sysUserProvider.getById(userId);
-        if (sysUserOptional.isEmpty()) {
-            return Optional.empty();
-        }
-        SysUser sysUser = sysUserOptional.get();
-        BeanUtils.copyProperties(sysUser, loginUser);
-        loginUser.setSysUserAuth(sysUserAuth);
-
-        // 查询用户权限和角色信息
-        Optional<Map<String, Set<String>>> userRBAC = sysUserProvider.getUserRBAC(userId);
-        if (userRBAC.isPresent()){
-            Map<String, Set<String>> rbacMap = userRBAC.get();
-            Set<String> roles = rbacMap.get("roles");
-            Set<String> perms = rbacMap.get("perms");
-            loginUser.setPerms(perms);
-            loginUser.setRoles(roles);
-        }else{
-            loginUser.setRoles(Set.of());
-            loginUser.setPerms(Set.of());
-        }
-
-
-        return Optional.of(loginUser);
+        // 认证信息、用户信息、角色ID一次查询
+        return sysUserAuthService.loadLoginUserByIdentifier(account).map(this::resolveRolePerms);
     }
 
     @Override
@@ -125,37 +94,59 @@ public class AuthServiceImpl implements AuthService {
         if (userId == null) {
             return Optional.empty();
         }
+        // 认证信息、用户信息、角色ID一次查询
+        return sysUserAuthService.loadLoginUserByUserId(userId).map(this::resolveRolePerms);
+    }
 
-        // 查询用户信息
-        Optional<SysUser> sysUserOptional = sysUserProvider.getById(userId);
-        if (sysUserOptional.isEmpty()) {
-            return Optional.empty();
-        }
-        SysUser sysUser = sysUserOptional.get();
-
-        LoginUserDetail loginUser = new LoginUserDetail();
-        BeanUtils.copyProperties(sysUser, loginUser);
-
-        // 查询认证信息
-        SysUserAuth sysUserAuth = sysUserAuthService.getOne(
-                new LambdaQueryWrapper<SysUserAuth>().eq(SysUserAuth::getUserId, userId));
-        loginUser.setSysUserAuth(sysUserAuth);
-
-        // 查询用户权限和角色信息
-        Optional<Map<String, Set<String>>> userRBAC = sysUserProvider.getUserRBAC(userId);
-        if (userRBAC.isPresent()){
-            Map<String, Set<String>> rbacMap = userRBAC.get();
-            Set<String> roles = rbacMap.get("roles");
-            Set<String> perms = rbacMap.get("perms");
-            loginUser.setPerms(perms);
-            loginUser.setRoles(roles);
-        }else{
-            loginUser.setRoles(Set.of());
-            loginUser.setPerms(Set.of());
+    /**
+     * 按角色ID填充角色标识和权限，角色权限按角色缓存，只在角色或菜单变化后重新查询
+     */
+    private LoginUserDetail resolveRolePerms(LoginUserDetail loginUser) {
+        Set<String> roles = new HashSet<>();
+        Set<String> perms = new HashSet<>();
+        if (!CollectionUtils.isEmpty(loginUser.getRoleIds())) {
+            sysRoleProvider.resolve(loginUser.getRoleIds()).values().forEach(rolePerms -> {
+                if (StringUtils.hasText(rolePerms.getRoleFlag())) {
+                    roles.add(rolePerms.getRoleFlag());
+                }
+                perms.addAll(rolePerms.getPerms());
+            });
         }
+        loginUser.setRoles(roles);
+        loginUser.setPerms(perms);
+        return loginUser;
+    }
 
-        return Optional.of(loginUser);
+    @Override
+    public LoginRsp refresh(String refreshToken) {
+        return loginSessionService.refresh(refreshToken)
+                .orElseThrow(() -> new AuthenticateException("刷新Token无效或已过期"));
     }
 
+    @Override
+    public void logout() {
+        SecurityContextUtil.getCurrentUser().ifPresent(loginSessionService::removeSession);
+    }
 
+    @Override
+    public long revokeSessions(SessionRevokeParam param) {
+        boolean hasUsers = param.getUserIds() != null && !param.getUserIds().isEmpty();
+        boolean hasRoles = param.getRoleIds() != null && !param.getRoleIds().isEmpty();
+        if (!hasUsers && !hasRoles) {
+            throw new CommonException("用户和角色至少指定一项");
+        }
+        long revoked = 0;
+        if (hasRoles) {
+            // 角色ID转换为会话中记录的角色标识
+            List<String> roleFlags = sysRoleProvider.resolve(param.getRoleIds()).values().stream()
+                    .map(SysRoleProvider.RolePerms::getRoleFlag)
+                    .filter(Objects::nonNull)
+                    .toList();
+            revoked += loginSessionService.revokeRoles(roleFlags);
+        }
+        if (hasUsers) {
+            revoked += loginSessionService.revokeUsers(param.getUserIds());
+        }
+        return revoked;
+    }
 }
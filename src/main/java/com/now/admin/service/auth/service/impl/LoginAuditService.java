@@ -0,0 +1,64 @@
+package com.now.admin.service.auth.service.impl;
+
+import com.now.admin.common.constant.OperateType;
+import com.now.admin.common.domain.LogRecord;
+import com.now.admin.common.task.TaskExecutor;
+import com.now.admin.common.util.LoginDeviceInfoUtil;
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import com.now.admin.service.sys.provider.SysOperationLogProvider;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 登录后置处理
+ * 设备信息解析（IP归属地、User-Agent）和登录日志不影响登录结果，在后台任务中执行；
+ * 解析结果只记录在登录日志中，不写入会话
+ */
+@Slf4j
+@Service
+public class LoginAuditService {
+
+    @Resource
+    private TaskExecutor taskExecutor;
+
+    @Resource
+    private SysOperationLogProvider sysOperationLogProvider;
+
+    /**
+     * 提交登录后置处理
+     *
+     * @param details 登录用户，deviceInfo只需包含IP和User-Agent
+     */
+    public void submit(LoginUserDetail details) {
+        Long userId = details.getId();
+        String username = details.getUsername();
+        LoginDeviceInfoUtil.deviceInfo deviceInfo = details.getDeviceInfo();
+        LocalDateTime loginTime = LocalDateTime.now();
+        taskExecutor.execute(() -> {
+            if (deviceInfo != null) {
+                LoginDeviceInfoUtil.enrich(deviceInfo);
+            }
+            sysOperationLogProvider.saveOperationLog(loginRecord(userId, username, deviceInfo, loginTime));
+        });
+    }
+
+    private static LogRecord loginRecord(Long userId, String username, LoginDeviceInfoUtil.deviceInfo deviceInfo,
+                                         LocalDateTime loginTime) {
+        LogRecord logRecord = new LogRecord();
+        logRecord.setId(userId);
+        logRecord.setUsername(username);
+        logRecord.setOperateType(OperateType.LOGIN);
+        logRecord.setOperation("用户登录");
+        logRecord.setOperateTime(loginTime);
+        if (deviceInfo != null) {
+            logRecord.setIp(deviceInfo.getIp());
+            logRecord.setUserAgent(deviceInfo.getUserAgent());
+            logRecord.setOperateDesc(String.join(" ", String.valueOf(deviceInfo.getLocation()),
+                    String.valueOf(deviceInfo.getOs()), String.valueOf(deviceInfo.getBrowser())));
+        }
+        return logRecord;
+    }
+}
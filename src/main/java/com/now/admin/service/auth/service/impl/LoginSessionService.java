@@ -0,0 +1,841 @@
+package com.now.admin.service.auth.service.impl;
+
+import com.now.admin.common.constant.RedisKeyConstant;
+import com.now.admin.common.constant.RefreshTokenModeEnum;
+import com.now.admin.common.domain.vo.LoginRsp;
+import com.now.admin.common.exception.InnerCommonException;
+import com.now.admin.common.exception.RedisUnavailableException;
+import com.now.admin.common.util.RedisUtil;
+import com.now.admin.common.util.UUIDUtil;
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import com.now.admin.service.auth.domain.ParsedToken;
+import com.now.admin.service.auth.domain.PermissionSet;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登录会话服务
+ * 登录会话存储在 login:user:{userId} hash 中，字段为 loginFlag；
+ * 不透明刷新Token的摘要存储在同一hash的 refresh:{loginFlag} 字段，与会话同生命周期
+ *
+ * 每个会话单独过期：过期时间写在 expire:{loginFlag} 字段，读取会话时一并校验；
+ * hash本身的过期时间跟随最晚过期的会话，新登录不会延长其他会话。
+ * 每个用户的会话数有上限，超出时淘汰过期时间最早（最久未续期）的会话；
+ * 过期会话的字段在登录时顺带清理，长期不登录的用户由后台按 login:sweep 索引清理
+ *
+ * 登录时把用户ID写入所持角色的反向索引 login:role:{roleFlag}，写入过的索引key记录在同一hash的 index:roles 字段，
+ * 最后一个会话注销或被清理、用户被批量下线时据此移除；按角色批量下线时只读取索引，不扫描 login:user:* key
+ *
+ * 会话滑动续期：请求使用的会话剩余时间低于阈值时登记续期，同一会话在写入前只登记一次；
+ * 后台线程定期把登记的续期通过管道批量写入，Redis写入量与活跃会话数成正比，与请求数无关
+ *
+ * 解析后的会话在本地近端缓存中保留很短的时间，同一会话的后续请求不再访问Redis；
+ * 其他节点注销的会话最多在缓存存活时间内仍可使用
+ *
+ * 降级模式：Redis不可用（熔断器打开、连接失败或超时）时，使用本节点最近一次成功加载的会话副本鉴权，
+ * 副本最多保留 session.degraded.max-stale，且不超过会话自身的过期时间；没有副本的会话返回503而不是401，
+ * 不会因为Redis故障把用户踢下线。降级期间不续期，其他节点的注销在Redis恢复前不可见
+ */
+@Slf4j
+@Service
+public class LoginSessionService {
+
+    @Resource
+    private TokenService tokenService;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private PermissionSetService permissionSetService;
+
+    @Resource
+    private LoginAuditService loginAuditService;
+
+    /**
+     * 刷新Token模式
+     */
+    @Value("${secret.refresh-token-mode:opaque}")
+    private String refreshTokenModeCode;
+
+    @Getter
+    private RefreshTokenModeEnum refreshTokenMode;
+
+    /**
+     * 会话近端缓存的最大条目数
+     */
+    @Value("${session.cache.size:10000}")
+    private long sessionCacheSize;
+
+    /**
+     * 会话近端缓存的存活时间
+     */
+    @Value("${session.cache.ttl:5s}")
+    private Duration sessionCacheTtl;
+
+    /**
+     * 每个用户同时存在的会话数上限，小于等于0时不限制
+     */
+    @Value("${session.max-concurrent:5}")
+    private int maxConcurrentSessions;
+
+    /**
+     * 后台清理每批处理的用户数
+     */
+    @Value("${session.sweep.batch-size:200}")
+    private int sweepBatchSize;
+
+    /**
+     * 续期后的会话有效期，默认与登录时的有效期（LoginAuthenticationFilter.LONG_USER_EXPIRE_TIME）相同
+     */
+    @Value("${session.renew.ttl:10080s}")
+    private Duration renewTtl;
+
+    /**
+     * 会话剩余时间低于有效期的该比例时续期
+     */
+    @Value("${session.renew.threshold-ratio:0.5}")
+    private double renewThresholdRatio;
+
+    /**
+     * 每个管道写入的续期数
+     */
+    @Value("${session.renew.batch-size:500}")
+    private int renewBatchSize;
+
+    /**
+     * 刷新Token轮换后的重用宽限期，期内重用旧刷新Token视为客户端并发刷新，不按重放处理
+     */
+    @Value("${session.refresh.reuse-grace:10s}")
+    private Duration refreshReuseGrace;
+
+    /**
+     * 降级模式下会话副本的最长保留时间
+     */
+    @Value("${session.degraded.max-stale:10m}")
+    private Duration degradedMaxStale;
+
+    /**
+     * 待写入的续期，key为 {userId}:{loginFlag}，同一会话只保留一条
+     */
+    private final Map<String, Renewal> pendingRenewals = new ConcurrentHashMap<>();
+
+    /**
+     * 会话近端缓存，key为 {userId}:{loginFlag}，只缓存存在的会话
+     */
+    private Cache<String, LoginUserDetail> sessionCache;
+
+    /**
+     * 最近一次从Redis成功加载的会话副本，只在Redis不可用时使用，key与近端缓存相同
+     */
+    private Cache<String, LoginUserDetail> degradedSessions;
+
+    private final LongAdder degradedHits = new LongAdder();
+
+    /**
+     * 不透明刷新Token的分隔符，格式为 {userId}.{loginFlag}.{secret}
+     */
+    private static final String REFRESH_TOKEN_SEPARATOR = ".";
+
+    /**
+     * 不透明刷新Token随机部分的字节数
+     */
+    private static final int REFRESH_SECRET_BYTES = 32;
+
+    /**
+     * 批量下线时每条DEL命令包含的key数
+     */
+    private static final int REVOKE_BATCH_SIZE = 1000;
+
+    /**
+     * 会话脚本公共函数，字段前缀与 RedisKeyConstant 中的定义一致
+     * prune：删除已过期会话的全部字段和后继会话已不存在的轮换记录，返回未过期会话的 {loginFlag, 过期时间}；
+     * 轮换记录 rotated:{旧loginFlag} 的值为 {successor, digest, rotatedAt}，保存后继loginFlag、旧刷新Token摘要和轮换时间；
+     * reschedule：hash按最晚过期的会话设置过期时间，并在清理索引中登记最早的过期时间；
+     * index / unindex：会话hash的 index:roles 字段记录用户已写入的角色反向索引key，最后一个会话移除时据此移除用户；
+     * revoke：删除用户的会话hash，并移除其角色反向索引和清理索引中的条目，返回是否存在会话
+     */
+    private static final String SESSION_FUNCTIONS = """
+            local function removeSession(key, flag)
+                redis.call('HDEL', key, flag, 'expire:' .. flag, 'refresh:' .. flag)
+            end
+            local function prune(key, now)
+                local fields = redis.call('HGETALL', key)
+                local live = {}
+                for i = 1, #fields, 2 do
+                    if string.sub(fields[i], 1, 7) == 'expire:' then
+                        local flag = string.sub(fields[i], 8)
+                        local expireAt = tonumber(fields[i + 1])
+                        if expireAt <= now then
+                            removeSession(key, flag)
+                        else
+                            live[#live + 1] = {flag, expireAt}
+                        end
+                    elseif string.sub(fields[i], 1, 8) == 'rotated:' then
+                        if redis.call('HEXISTS', key, cjson.decode(fields[i + 1]).successor) == 0 then
+                            redis.call('HDEL', key, fields[i])
+                        end
+                    end
+                end
+                return live
+            end
+            local function extendTo(key, now, expireAt)
+                local ttl = redis.call('PTTL', key)
+                if ttl < 0 or now + ttl < expireAt then
+                    redis.call('PEXPIREAT', key, string.format('%.0f', expireAt))
+                end
+            end
+            local function index(key, indexKeys)
+                local indexed = redis.call('HGET', key, 'index:roles')
+                local list, seen = indexed and cjson.decode(indexed) or {}, {}
+                for _, indexKey in ipairs(list) do
+                    seen[indexKey] = true
+                end
+                for _, indexKey in ipairs(indexKeys) do
+                    if not seen[indexKey] then
+                        list[#list + 1] = indexKey
+                        seen[indexKey] = true
+                    end
+                end
+                if #list > 0 then
+                    redis.call('HSET', key, 'index:roles', cjson.encode(list))
+                end
+            end
+            local function unindex(key, member)
+                local indexed = redis.call('HGET', key, 'index:roles')
+                if indexed then
+                    for _, indexKey in ipairs(cjson.decode(indexed)) do
+                        redis.call('SREM', indexKey, member)
+                    end
+                    redis.call('HDEL', key, 'index:roles')
+                end
+            end
+            local function revoke(key, sweepKey, member)
+                redis.call('ZREM', sweepKey, member)
+                if redis.call('EXISTS', key) == 0 then
+                    return 0
+                end
+                unindex(key, member)
+                redis.call('DEL', key)
+                return 1
+            end
+            local function reschedule(key, sweepKey, member, live)
+                if #live == 0 then
+                    redis.call('ZREM', sweepKey, member)
+                    return
+                end
+                local first, last = live[1][2], live[1][2]
+                for i = 2, #live do
+                    first = math.min(first, live[i][2])
+                    last = math.max(last, live[i][2])
+                end
+                redis.call('PEXPIREAT', key, string.format('%.0f', last))
+                redis.call('ZADD', sweepKey, string.format('%.0f', first), member)
+            end
+            """;
+
+    /**
+     * 创建会话脚本
+     * KEYS[1]为会话hash，KEYS[2]为清理索引，其后为角色反向索引；ARGV[1]为当前时间（毫秒），ARGV[2]为会话数上限，
+     * ARGV[3]为用户ID，ARGV[4]为会话过期时间（毫秒），其后为会话字段、值交替。返回被淘汰的会话数
+     */
+    private static final RedisScript<Long> CREATE_SESSION_SCRIPT = new DefaultRedisScript<>(SESSION_FUNCTIONS + """
+            redis.call('HSET', KEYS[1], unpack(ARGV, 5))
+            local live = prune(KEYS[1], tonumber(ARGV[1]))
+            local max = tonumber(ARGV[2])
+            local evicted = 0
+            if max > 0 and #live > max then
+                table.sort(live, function(a, b) return a[2] < b[2] end)
+                evicted = #live - max
+                for i = 1, evicted do
+                    removeSession(KEYS[1], live[i][1])
+                end
+                live = {unpack(live, evicted + 1)}
+            end
+            reschedule(KEYS[1], KEYS[2], ARGV[3], live)
+            for i = 3, #KEYS do
+                redis.call('SADD', KEYS[i], ARGV[3])
+                extendTo(KEYS[i], tonumber(ARGV[1]), tonumber(ARGV[4]))
+            end
+            index(KEYS[1], {unpack(KEYS, 3)})
+            return evicted
+            """, Long.class);
+
+    /**
+     * 注销会话脚本
+     * KEYS[1]为会话hash，KEYS[2]为清理索引，其后为角色反向索引；ARGV[1]为当前时间（毫秒），ARGV[2]为用户ID，
+     * ARGV[3]为loginFlag。用户没有其他未过期会话时从角色反向索引中移除，包括其他会话登录时写入的索引
+     */
+    private static final RedisScript<Long> REMOVE_SESSION_SCRIPT = new DefaultRedisScript<>(SESSION_FUNCTIONS + """
+            removeSession(KEYS[1], ARGV[3])
+            local live = prune(KEYS[1], tonumber(ARGV[1]))
+            if #live == 0 then
+                for i = 3, #KEYS do
+                    redis.call('SREM', KEYS[i], ARGV[2])
+                end
+                unindex(KEYS[1], ARGV[2])
+            end
+            reschedule(KEYS[1], KEYS[2], ARGV[2], live)
+            return 1
+            """, Long.class);
+
+    /**
+     * 清理脚本
+     * KEYS[1]为清理索引；ARGV[1]为当前时间（毫秒），ARGV[2]为批大小，ARGV[3]为会话hash的key前缀。
+     * 清理索引中到期用户的过期会话并重新登记，没有未过期会话的用户从角色反向索引中移除，返回处理的用户数
+     */
+    private static final RedisScript<Long> SWEEP_SCRIPT = new DefaultRedisScript<>(SESSION_FUNCTIONS + """
+            local now = tonumber(ARGV[1])
+            local members = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+            for _, member in ipairs(members) do
+                local key = ARGV[3] .. member
+                local live = prune(key, now)
+                if #live == 0 then
+                    unindex(key, member)
+                end
+                reschedule(key, KEYS[1], member, live)
+            end
+            return #members
+            """, Long.class);
+
+    /**
+     * 批量下线用户脚本
+     * KEYS[1]为清理索引；ARGV[1]为会话hash的key前缀，其后为用户ID。
+     * 删除会话hash，同时移除用户在角色反向索引和清理索引中的条目，返回存在会话的用户数
+     */
+    private static final RedisScript<Long> REVOKE_USERS_SCRIPT = new DefaultRedisScript<>(SESSION_FUNCTIONS + """
+            local revoked = 0
+            for i = 2, #ARGV do
+                revoked = revoked + revoke(ARGV[1] .. ARGV[i], KEYS[1], ARGV[i])
+            end
+            return revoked
+            """, Long.class);
+
+    /**
+     * 按角色批量下线脚本
+     * KEYS[1]为清理索引，其后为角色反向索引；ARGV[1]为会话hash的key前缀。
+     * 读取索引成员和删除会话在同一脚本中完成，期间新建的会话不会漏删；返回存在会话的用户ID
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REVOKE_ROLES_SCRIPT = new DefaultRedisScript<>(SESSION_FUNCTIONS + """
+            local seen, revoked = {}, {}
+            for i = 2, #KEYS do
+                for _, member in ipairs(redis.call('SMEMBERS', KEYS[i])) do
+                    if not seen[member] then
+                        seen[member] = true
+                        if revoke(ARGV[1] .. member, KEYS[1], member) == 1 then
+                            revoked[#revoked + 1] = member
+                        end
+                    end
+                end
+                redis.call('DEL', KEYS[i])
+            end
+            return revoked
+            """, List.class);
+
+    /**
+     * 续期脚本
+     * KEYS[1]为会话hash，其后为角色反向索引和会话引用的共享权限集；ARGV[1]为当前时间（毫秒），ARGV[2]为loginFlag，
+     * ARGV[3]为新的过期时间。只延长仍然有效的会话，不会恢复已过期或已注销的会话；返回是否续期。
+     * 共享权限集登录时只保留两倍的会话有效期，随会话一起延长，续期后的会话在其他节点上仍能加载权限集
+     */
+    private static final RedisScript<Long> RENEW_SESSION_SCRIPT = new DefaultRedisScript<>(SESSION_FUNCTIONS + """
+            local now = tonumber(ARGV[1])
+            local expireAt = tonumber(ARGV[3])
+            local current = redis.call('HGET', KEYS[1], 'expire:' .. ARGV[2])
+            if not current or tonumber(current) <= now or tonumber(current) >= expireAt
+                    or redis.call('HEXISTS', KEYS[1], ARGV[2]) == 0 then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'expire:' .. ARGV[2], ARGV[3])
+            for i = 1, #KEYS do
+                extendTo(KEYS[i], now, expireAt)
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * 刷新Token轮换脚本，每次刷新都更换loginFlag，旧的访问Token随即失效
+     * KEYS[1]为会话hash；ARGV[1]为当前时间（毫秒），ARGV[2]为旧loginFlag，ARGV[3]为新loginFlag，
+     * ARGV[4]为旧刷新Token摘要，ARGV[5]为新刷新Token摘要（JWT模式下均为空串，不校验摘要），ARGV[6]为重用宽限期（毫秒）。
+     * 会话迁移到新loginFlag并留下轮换记录，返回1；会话不存在、已过期或摘要不匹配返回0，不修改会话。
+     * 已轮换的刷新Token再次使用且摘要与轮换记录一致，说明刷新Token被重放，注销后继会话，返回-1；
+     * 轮换后宽限期内的重用视为客户端并发刷新，返回0，不注销。
+     * 会话hash的值按JSON序列化，摘要比较和写入时按JSON字符串编码；轮换记录只由脚本读取，直接存储JSON对象
+     */
+    private static final RedisScript<Long> ROTATE_SESSION_SCRIPT = new DefaultRedisScript<>(SESSION_FUNCTIONS + """
+            local now = tonumber(ARGV[1])
+            local old, new = ARGV[2], ARGV[3]
+            local rotated = redis.call('HGET', KEYS[1], 'rotated:' .. old)
+            if rotated then
+                local record = cjson.decode(rotated)
+                if record.digest ~= ARGV[4] or now - record.rotatedAt < tonumber(ARGV[6]) then
+                    return 0
+                end
+                removeSession(KEYS[1], record.successor)
+                redis.call('HDEL', KEYS[1], 'rotated:' .. old)
+                return -1
+            end
+            local session = redis.call('HGET', KEYS[1], old)
+            local expireAt = redis.call('HGET', KEYS[1], 'expire:' .. old)
+            if not session or (expireAt and tonumber(expireAt) <= now) then
+                return 0
+            end
+            if ARGV[4] ~= '' and redis.call('HGET', KEYS[1], 'refresh:' .. old) ~= cjson.encode(ARGV[4]) then
+                return 0
+            end
+            removeSession(KEYS[1], old)
+            local record = cjson.encode({successor = new, digest = ARGV[4], rotatedAt = now})
+            redis.call('HSET', KEYS[1], new, session, 'rotated:' .. old, record)
+            if expireAt then
+                redis.call('HSET', KEYS[1], 'expire:' .. new, expireAt)
+            end
+            if ARGV[5] ~= '' then
+                redis.call('HSET', KEYS[1], 'refresh:' .. new, cjson.encode(ARGV[5]))
+            end
+            return 1
+            """, Long.class);
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @PostConstruct
+    public void init() {
+        refreshTokenMode = RefreshTokenModeEnum.fromCode(refreshTokenModeCode);
+        sessionCache = Caffeine.newBuilder()
+                .maximumSize(sessionCacheSize)
+                .expireAfterWrite(sessionCacheTtl)
+                .recordStats()
+                .build();
+        degradedSessions = Caffeine.newBuilder()
+                .maximumSize(sessionCacheSize)
+                .expireAfterWrite(degradedMaxStale)
+                .build();
+    }
+
+    /**
+     * 获取登录会话
+     * 优先从近端缓存获取，未命中时从Redis加载会话和过期时间；同一会话的并发未命中只访问一次Redis。
+     * Redis不可用时使用本地会话副本
+     *
+     * @param userId    用户ID
+     * @param loginFlag 登录标识
+     * @return Optional<LoginUserDetail>
+     * @throws RedisUnavailableException Redis不可用且本地没有该会话的有效副本
+     */
+    public Optional<LoginUserDetail> getSession(Long userId, String loginFlag) {
+        Optional<LoginUserDetail> session;
+        try {
+            session = loadSession(userId, loginFlag);
+        } catch (RedisUnavailableException e) {
+            return Optional.of(degradedSession(userId, loginFlag, e));
+        }
+        session.ifPresent(this::renewIfNeeded);
+        return session;
+    }
+
+    private LoginUserDetail degradedSession(Long userId, String loginFlag, RedisUnavailableException e) {
+        LoginUserDetail loginUser = degradedSessions.getIfPresent(sessionCacheKey(userId, loginFlag));
+        if (loginUser == null || (loginUser.getExpireAt() != null && loginUser.getExpireAt() <= System.currentTimeMillis())) {
+            throw e;
+        }
+        degradedHits.increment();
+        return loginUser;
+    }
+
+    private Optional<LoginUserDetail> loadSession(Long userId, String loginFlag) {
+        LoginUserDetail loginUser = sessionCache.get(sessionCacheKey(userId, loginFlag), cacheKey -> {
+            List<Object> values = redisUtil.hMultiGet(sessionKey(userId), List.of(loginFlag, expireField(loginFlag)));
+            if (!(values.get(0) instanceof LoginUserDetail detail)) {
+                return null;
+            }
+            // 没有过期时间字段的历史会话随hash一起过期
+            if (values.get(1) instanceof Number expireAt && expireAt.longValue() <= System.currentTimeMillis()) {
+                return null;
+            }
+            detail.setLoginFlag(loginFlag);
+            detail.setExpireAt(values.get(1) instanceof Number expireAt ? expireAt.longValue() : null);
+            // 关联共享权限集，权限集丢失时视为会话失效
+            if (detail.getPermSetId() != null) {
+                Optional<PermissionSet> permissionSet = permissionSetService.get(detail.getPermSetId());
+                if (permissionSet.isEmpty()) {
+                    return null;
+                }
+                detail.setPermissionSet(permissionSet.get());
+            } else {
+                // 历史会话直接存储权限，关联本地权限集以获得权限位图
+                detail.setPermissionSet(permissionSetService.local(detail.getRoles(), detail.getPerms()));
+            }
+            degradedSessions.put(cacheKey, detail);
+            return detail;
+        });
+        return Optional.ofNullable(loginUser);
+    }
+
+    /**
+     * 会话近端缓存的命中统计
+     */
+    public CacheStats getSessionCacheStats() {
+        return sessionCache.stats();
+    }
+
+    /**
+     * 降级模式下使用本地会话副本鉴权的次数
+     */
+    public long getDegradedHits() {
+        return degradedHits.sum();
+    }
+
+    /**
+     * 创建登录会话并签发Token
+     * 不透明模式下刷新Token摘要与会话一起写入，只需一次签名；
+     * 会话字段、过期时间、过期会话清理和超限淘汰在一次Redis调用中完成，设备信息解析和登录日志在后台完成
+     *
+     * @param details    登录用户
+     * @param expireTime 会话过期时间（秒）
+     * @return 登录结果
+     */
+    public LoginRsp createSession(LoginUserDetail details, long expireTime) {
+        Long userId = details.getId();
+        // 生成登录标识码
+        String loginFlag = UUIDUtil.shortUUID();
+        // 会话只引用共享权限集
+        details.setPermissionSet(permissionSetService.intern(details.getRoles(), details.getPerms(), expireTime));
+
+        long now = System.currentTimeMillis();
+        long expireAt = now + expireTime * 1000;
+        Map<String, Object> sessionFields = new LinkedHashMap<>();
+        sessionFields.put(loginFlag, details);
+        sessionFields.put(expireField(loginFlag), expireAt);
+        String refreshToken;
+        if (refreshTokenMode == RefreshTokenModeEnum.OPAQUE) {
+            String secret = randomSecret();
+            sessionFields.put(refreshField(loginFlag), TokenService.digest(secret));
+            refreshToken = opaqueRefreshToken(userId, loginFlag, secret);
+        } else {
+            refreshToken = tokenService.generateRefreshToken(userId, loginFlag);
+        }
+        // 缓存登录用户
+        Long evicted;
+        try {
+            evicted = redisUtil.execute(CREATE_SESSION_SCRIPT, sessionKeys(userId, details.getRoles()),
+                    List.of(String.valueOf(now), String.valueOf(maxConcurrentSessions), String.valueOf(userId),
+                            String.valueOf(expireAt)),
+                    sessionFields);
+        } catch (Exception e) {
+            throw new InnerCommonException("登录会话写入失败: " + e.getMessage());
+        }
+        if (evicted != null && evicted > 0) {
+            log.info("用户{}会话数超过上限{}，已淘汰{}个最久未续期的会话", userId, maxConcurrentSessions, evicted);
+        }
+        loginAuditService.submit(details);
+
+        return LoginRsp.builder()
+                .userId(userId)
+                .token(tokenService.generateToken(userId, loginFlag))
+                .refreshToken(refreshToken)
+                .build();
+    }
+
+    /**
+     * 使用刷新Token换取新的访问Token和刷新Token
+     * 刷新Token只校验一次（JWT模式验签并校验Token类型，不透明模式比对摘要），会话校验和loginFlag轮换在一次脚本调用中完成，
+     * 不访问数据库，也不做密码校验；旧loginFlag的访问Token和刷新Token随即失效。
+     * 摘要不匹配的刷新Token直接拒绝，不影响会话；已轮换的旧刷新Token在宽限期后再次使用且摘要一致时视为泄露，
+     * 其后继会话立即失效
+     *
+     * @param refreshToken 刷新Token
+     * @return 新的访问Token和刷新Token，刷新Token无效时返回空
+     */
+    public Optional<LoginRsp> refresh(String refreshToken) {
+        if (!StringUtils.hasText(refreshToken)) {
+            return Optional.empty();
+        }
+        Long userId;
+        String loginFlag;
+        String oldDigest = "";
+        String newSecret = null;
+        if (refreshTokenMode == RefreshTokenModeEnum.JWT) {
+            ParsedToken parsedToken = tokenService.parseToken(refreshToken);
+            userId = parsedToken.getUserId();
+            loginFlag = parsedToken.getLoginFlag();
+            // 访问Token与刷新Token的其他声明相同，必须按类型区分
+            if (!parsedToken.isRefreshToken() || Objects.isNull(userId) || !StringUtils.hasText(loginFlag)) {
+                return Optional.empty();
+            }
+        } else {
+            String[] parts = refreshToken.split("\\" + REFRESH_TOKEN_SEPARATOR, 3);
+            if (parts.length != 3 || !StringUtils.hasText(parts[1]) || !StringUtils.hasText(parts[2])) {
+                return Optional.empty();
+            }
+            try {
+                userId = Long.valueOf(parts[0]);
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+            loginFlag = parts[1];
+            oldDigest = TokenService.digest(parts[2]);
+            newSecret = randomSecret();
+        }
+
+        String newLoginFlag = UUIDUtil.shortUUID();
+        Long result = redisUtil.execute(ROTATE_SESSION_SCRIPT, List.of(sessionKey(userId)),
+                String.valueOf(System.currentTimeMillis()), loginFlag, newLoginFlag, oldDigest,
+                newSecret == null ? "" : TokenService.digest(newSecret), String.valueOf(refreshReuseGrace.toMillis()));
+        invalidateLocal(sessionCacheKey(userId, loginFlag));
+        if (Objects.equals(result, -1L)) {
+            log.warn("刷新Token重放，已注销会话，用户:{}，loginFlag:{}", userId, loginFlag);
+            return Optional.empty();
+        }
+        if (!Objects.equals(result, 1L)) {
+            return Optional.empty();
+        }
+        return Optional.of(LoginRsp.builder()
+                .userId(userId)
+                .token(tokenService.generateToken(userId, newLoginFlag))
+                .refreshToken(newSecret == null
+                        ? tokenService.generateRefreshToken(userId, newLoginFlag)
+                        : opaqueRefreshToken(userId, newLoginFlag, newSecret))
+                .build());
+    }
+
+    /**
+     * 注销会话，用户没有其他会话时从角色反向索引中移除
+     *
+     * @param loginUser 当前登录用户，需包含loginFlag
+     */
+    public void removeSession(LoginUserDetail loginUser) {
+        Long userId = loginUser.getId();
+        String loginFlag = loginUser.getLoginFlag();
+        if (userId == null || !StringUtils.hasText(loginFlag)) {
+            return;
+        }
+        redisUtil.execute(REMOVE_SESSION_SCRIPT, sessionKeys(userId, loginUser.getRoles()),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(userId), loginFlag);
+        invalidateLocal(sessionCacheKey(userId, loginFlag));
+    }
+
+    /**
+     * 批量下线用户，删除其全部会话
+     * 每批用户只执行一次脚本，会话hash与角色反向索引、清理索引中的条目一起删除；
+     * 其他节点的近端缓存在存活时间内仍可能命中
+     *
+     * @param userIds 用户ID
+     * @return 实际删除会话的用户数
+     */
+    public long revokeUsers(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
+        }
+        long revoked = 0;
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(userIds));
+        for (int from = 0; from < ids.size(); from += REVOKE_BATCH_SIZE) {
+            String[] args = new String[Math.min(REVOKE_BATCH_SIZE, ids.size() - from) + 1];
+            args[0] = RedisKeyConstant.LOGIN_USER_PREFIX;
+            for (int i = 1; i < args.length; i++) {
+                args[i] = String.valueOf(ids.get(from + i - 1));
+            }
+            Long count = redisUtil.execute(REVOKE_USERS_SCRIPT, List.of(RedisKeyConstant.LOGIN_SWEEP_KEY), args);
+            revoked += count == null ? 0 : count;
+        }
+        invalidateLocalUsers(ids);
+        log.info("批量下线用户{}个，其中{}个用户存在会话", ids.size(), revoked);
+        return revoked;
+    }
+
+    /**
+     * 按角色批量下线，通过角色反向索引找到有会话的用户
+     * 索引成员的读取和会话删除在一次脚本调用中完成
+     *
+     * @param roleFlags 角色标识
+     * @return 实际删除会话的用户数
+     */
+    public long revokeRoles(Collection<String> roleFlags) {
+        if (roleFlags == null || roleFlags.isEmpty()) {
+            return 0;
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(RedisKeyConstant.LOGIN_SWEEP_KEY);
+        new LinkedHashSet<>(roleFlags).forEach(roleFlag -> keys.add(RedisKeyConstant.LOGIN_ROLE_INDEX_PREFIX + roleFlag));
+        List<?> members = redisUtil.execute(REVOKE_ROLES_SCRIPT, keys, RedisKeyConstant.LOGIN_USER_PREFIX);
+        Set<Long> userIds = new LinkedHashSet<>();
+        if (members != null) {
+            members.forEach(member -> userIds.add(Long.valueOf(String.valueOf(member))));
+        }
+        invalidateLocalUsers(userIds);
+        log.info("按角色{}批量下线，{}个用户存在会话", roleFlags, userIds.size());
+        return userIds.size();
+    }
+
+    /**
+     * 会话剩余时间低于阈值时登记续期
+     * 登记后先在本地推后过期时间，同一会话对象的后续请求不再重复登记
+     */
+    private void renewIfNeeded(LoginUserDetail loginUser) {
+        Long expireAt = loginUser.getExpireAt();
+        if (expireAt == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long ttl = renewTtl.toMillis();
+        if (expireAt - now >= ttl * renewThresholdRatio) {
+            return;
+        }
+        long newExpireAt = now + ttl;
+        loginUser.setExpireAt(newExpireAt);
+        pendingRenewals.put(sessionCacheKey(loginUser.getId(), loginUser.getLoginFlag()),
+                new Renewal(loginUser.getId(), loginUser.getLoginFlag(), loginUser.getRoles(), loginUser.getPermSetId(),
+                        newExpireAt));
+    }
+
+    /**
+     * 批量写入登记的续期，每批一个管道
+     */
+    @Scheduled(fixedDelayString = "${session.renew.flush-interval:1s}")
+    public void flushRenewals() {
+        if (pendingRenewals.isEmpty()) {
+            return;
+        }
+        List<List<String>> keys = new ArrayList<>();
+        List<List<String>> args = new ArrayList<>();
+        String now = String.valueOf(System.currentTimeMillis());
+        for (String cacheKey : pendingRenewals.keySet()) {
+            Renewal renewal = pendingRenewals.remove(cacheKey);
+            if (renewal == null) {
+                continue;
+            }
+            List<String> renewalKeys = sessionKeys(renewal.userId(), renewal.roleFlags());
+            // 续期不涉及清理索引，共享权限集与会话一起延长
+            renewalKeys.remove(1);
+            if (renewal.permSetId() != null) {
+                renewalKeys.add(RedisKeyConstant.PERM_SET_PREFIX + renewal.permSetId());
+            }
+            keys.add(renewalKeys);
+            args.add(List.of(now, renewal.loginFlag(), String.valueOf(renewal.expireAt())));
+            if (keys.size() >= renewBatchSize) {
+                writeRenewals(keys, args);
+                keys = new ArrayList<>();
+                args = new ArrayList<>();
+            }
+        }
+        writeRenewals(keys, args);
+    }
+
+    private void writeRenewals(List<List<String>> keys, List<List<String>> args) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            redisUtil.executePipelined(RENEW_SESSION_SCRIPT, keys, args);
+        } catch (Exception e) {
+            // 会话仍在有效期内，下次请求会重新登记
+            log.warn("会话续期写入失败，数量:{}，{}", keys.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 后台清理过期会话
+     * 只处理清理索引中已到期的用户，不扫描key；多个节点同时执行结果相同
+     */
+    @Scheduled(fixedDelayString = "${session.sweep.interval:60s}", initialDelayString = "${session.sweep.interval:60s}")
+    public void sweepExpiredSessions() {
+        long swept = 0;
+        try {
+            Long count;
+            do {
+                count = redisUtil.execute(SWEEP_SCRIPT, List.of(RedisKeyConstant.LOGIN_SWEEP_KEY),
+                        String.valueOf(System.currentTimeMillis()), String.valueOf(sweepBatchSize),
+                        RedisKeyConstant.LOGIN_USER_PREFIX);
+                swept += count == null ? 0 : count;
+            } while (count != null && count >= sweepBatchSize);
+        } catch (Exception e) {
+            log.warn("过期会话清理失败: {}", e.getMessage());
+        }
+        if (swept > 0) {
+            log.debug("已清理{}个用户的过期会话", swept);
+        }
+    }
+
+    /**
+     * 会话脚本的key：会话hash、清理索引、各角色的反向索引
+     */
+    private static List<String> sessionKeys(Long userId, Collection<String> roleFlags) {
+        List<String> keys = new ArrayList<>();
+        keys.add(sessionKey(userId));
+        keys.add(RedisKeyConstant.LOGIN_SWEEP_KEY);
+        if (roleFlags != null) {
+            roleFlags.forEach(roleFlag -> keys.add(RedisKeyConstant.LOGIN_ROLE_INDEX_PREFIX + roleFlag));
+        }
+        return keys;
+    }
+
+    /**
+     * 待写入的续期
+     */
+    private record Renewal(Long userId, String loginFlag, Collection<String> roleFlags, String permSetId, long expireAt) {
+    }
+
+    private static String sessionKey(Long userId) {
+        return RedisKeyConstant.LOGIN_USER_PREFIX + userId;
+    }
+
+    private void invalidateLocal(String cacheKey) {
+        sessionCache.invalidate(cacheKey);
+        degradedSessions.invalidate(cacheKey);
+    }
+
+    private void invalidateLocalUsers(Collection<Long> userIds) {
+        Set<String> prefixes = new HashSet<>();
+        userIds.forEach(userId -> prefixes.add(userId + ":"));
+        sessionCache.asMap().keySet().removeIf(cacheKey -> prefixes.contains(cacheKey.substring(0, cacheKey.indexOf(':') + 1)));
+        degradedSessions.asMap().keySet().removeIf(cacheKey -> prefixes.contains(cacheKey.substring(0, cacheKey.indexOf(':') + 1)));
+    }
+
+    private static String sessionCacheKey(Long userId, String loginFlag) {
+        return userId + ":" + loginFlag;
+    }
+
+    private static String expireField(String loginFlag) {
+        return RedisKeyConstant.LOGIN_EXPIRE_FIELD_PREFIX + loginFlag;
+    }
+
+    private static String refreshField(String loginFlag) {
+        return RedisKeyConstant.LOGIN_REFRESH_FIELD_PREFIX + loginFlag;
+    }
+
+    private static String opaqueRefreshToken(Long userId, String loginFlag, String secret) {
+        return userId + REFRESH_TOKEN_SEPARATOR + loginFlag + REFRESH_TOKEN_SEPARATOR + secret;
+    }
+
+    private String randomSecret() {
+        byte[] bytes = new byte[REFRESH_SECRET_BYTES];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,202 @@
+package com.now.admin.service.auth.service.impl;
+
+import com.now.admin.common.task.TaskExecutor;
+import com.now.admin.service.auth.common.exception.PasswordHashRejectedException;
+import com.now.admin.service.auth.domain.SysUserAuth;
+import com.now.admin.service.auth.service.SysUserAuthService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 密码哈希服务
+ * bcrypt校验是纯CPU运算，登录高峰直接在请求线程上执行会占满CPU，拖慢其他接口；
+ * 校验统一提交到与CPU核数相同的专用线程池，排队数量有上限，队列满或等待超时时快速失败（429），
+ * 不再继续堆积请求
+ *
+ * 登录成功后，若密码哈希的算法或bcrypt成本与当前配置不一致，在空闲时按当前配置重新编码并回写，
+ * 调整 security.password.bcrypt-strength 后无需迁移数据
+ */
+@Slf4j
+@Service
+public class PasswordHashService {
+
+    @Resource
+    private PasswordEncoder passwordEncoder;
+
+    @Resource
+    private SysUserAuthService sysUserAuthService;
+
+    @Resource
+    private TaskExecutor taskExecutor;
+
+    /**
+     * 线程数，小于等于0时使用CPU核数
+     */
+    @Value("${security.password.pool-size:0}")
+    private int poolSize;
+
+    /**
+     * 排队上限，超过时直接拒绝
+     */
+    @Value("${security.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    /**
+     * 请求线程等待校验结果的最长时间
+     */
+    @Value("${security.password.timeout:5s}")
+    private Duration timeout;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder timedOut = new LongAdder();
+
+    private final LongAdder rehashed = new LongAdder();
+
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    private final LongAdder hashNanos = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 校验密码，在专用线程池中执行，当前线程等待结果
+     *
+     * @param rawPassword     明文密码
+     * @param encodedPassword 密码哈希
+     * @return 是否匹配
+     * @throws PasswordHashRejectedException 排队已满或等待超时
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        long submitTime = System.nanoTime();
+        Future<Boolean> future;
+        try {
+            future = executor.submit(() -> {
+                long startTime = System.nanoTime();
+                try {
+                    return passwordEncoder.matches(rawPassword, encodedPassword);
+                } finally {
+                    queueWaitNanos.add(startTime - submitTime);
+                    hashNanos.add(System.nanoTime() - startTime);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("密码校验队列已满，拒绝登录请求，排队数: {}", executor.getQueue().size());
+            throw new PasswordHashRejectedException("登录请求过多，请稍后重试");
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 仍在排队的任务取消后不再执行
+            future.cancel(false);
+            timedOut.increment();
+            throw new PasswordHashRejectedException("登录请求过多，请稍后重试");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashRejectedException("密码校验被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * 密码哈希与当前配置不一致时重新编码并回写
+     * 只在线程池较空闲时执行，否则留到下次登录；回写以原哈希为条件，并发修改密码时不会被覆盖
+     *
+     * @param sysUserAuth 认证信息，credential为校验通过的密码哈希
+     * @param rawPassword 校验通过的明文密码
+     */
+    public void rehashIfNeeded(SysUserAuth sysUserAuth, String rawPassword) {
+        String oldCredential = sysUserAuth.getCredential();
+        if (sysUserAuth.getId() == null || !passwordEncoder.upgradeEncoding(oldCredential)) {
+            return;
+        }
+        if (executor.getQueue().remainingCapacity() < queueCapacity / 2) {
+            return;
+        }
+        Long authId = sysUserAuth.getId();
+        try {
+            executor.execute(() -> {
+                String newCredential = passwordEncoder.encode(rawPassword);
+                // 数据库写入交给后台任务，不占用哈希线程
+                taskExecutor.execute(() -> {
+                    if (sysUserAuthService.updateCredential(authId, oldCredential, newCredential)) {
+                        rehashed.increment();
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            // 下次登录再处理
+        }
+    }
+
+    /**
+     * 线程池运行统计
+     */
+    public Stats getStats() {
+        long count = completed.sum();
+        return new Stats(count, rejected.sum(), timedOut.sum(), rehashed.sum(),
+                executor.getQueue().size(), executor.getActiveCount(),
+                Duration.ofNanos(count == 0 ? 0 : queueWaitNanos.sum() / count),
+                Duration.ofNanos(count == 0 ? 0 : hashNanos.sum() / count));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 密码校验统计
+     *
+     * @param completed        已完成的校验次数
+     * @param rejected         队列已满被拒绝的次数
+     * @param timedOut         等待超时的次数
+     * @param rehashed         重新编码回写的次数
+     * @param queueDepth       当前排队数
+     * @param active           正在执行的校验数
+     * @param avgQueueWait     平均排队时间
+     * @param avgHashTime      平均哈希耗时
+     */
+    public record Stats(long completed, long rejected, long timedOut, long rehashed,
+                        int queueDepth, int active, Duration avgQueueWait, Duration avgHashTime) {
+    }
+}
@@ -0,0 +1,140 @@
+package com.now.admin.service.auth.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.now.admin.common.constant.RedisKeyConstant;
+import com.now.admin.common.exception.InnerCommonException;
+import com.now.admin.common.util.RedisUtil;
+import com.now.admin.service.auth.common.security.PermissionRegistry;
+import com.now.admin.service.auth.domain.PermissionSet;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * 共享权限集服务
+ * 权限集按内容计算ID，存储在 login:perm-set:{id}，同一角色组合的所有会话共用一份；
+ * 本地保留每个ID的唯一实例，加载会话时不再重复反序列化权限
+ */
+@Slf4j
+@Service
+public class PermissionSetService {
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private PermissionRegistry permissionRegistry;
+
+    /**
+     * 本地权限集的最大数量，通常远大于角色组合数
+     */
+    @Value("${session.perm-set-cache-size:1000}")
+    private long permSetCacheSize;
+
+    /**
+     * 本地权限集，id -> 唯一实例
+     */
+    private Cache<String, PermissionSet> permissionSets;
+
+    /**
+     * 本节点最近写入Redis的时间，id -> 毫秒时间戳
+     */
+    private Cache<String, Long> storedAt;
+
+    @PostConstruct
+    public void init() {
+        permissionSets = Caffeine.newBuilder()
+                .maximumSize(permSetCacheSize)
+                .build();
+        storedAt = Caffeine.newBuilder()
+                .maximumSize(permSetCacheSize)
+                .build();
+    }
+
+    /**
+     * 获取角色、权限组合对应的共享权限集，并保证其在Redis中的存活时间不短于会话
+     * Redis中的过期时间为会话的两倍，本节点在一个会话周期内只写入一次
+     *
+     * @param roles      角色标识
+     * @param perms      权限标识
+     * @param expireTime 会话过期时间（秒）
+     * @return 共享权限集
+     * @throws InnerCommonException 权限集写入Redis失败
+     */
+    public PermissionSet intern(Set<String> roles, Set<String> perms, long expireTime) {
+        String id = fingerprint(roles, perms);
+        PermissionSet permissionSet = permissionSets.get(id, key -> compile(key, roles, perms));
+
+        long now = System.currentTimeMillis();
+        Long lastStored = storedAt.getIfPresent(id);
+        if (lastStored == null || now - lastStored >= expireTime * 1000) {
+            // 写入失败时不记录写入时间，下次登录重新写入；引用该权限集的会话无法加载，登录直接失败
+            if (!redisUtil.set(RedisKeyConstant.PERM_SET_PREFIX + id, permissionSet, expireTime * 2)) {
+                throw new InnerCommonException("共享权限集写入失败: " + id);
+            }
+            storedAt.put(id, now);
+        }
+        return permissionSet;
+    }
+
+    /**
+     * 按ID获取共享权限集，本地不存在时从Redis加载
+     *
+     * @param id 权限集ID
+     * @return Optional<PermissionSet>
+     */
+    public Optional<PermissionSet> get(String id) {
+        PermissionSet permissionSet = permissionSets.get(id, key -> {
+            Object value = redisUtil.get(RedisKeyConstant.PERM_SET_PREFIX + key);
+            return value instanceof PermissionSet loaded ? compile(key, loaded.getRoles(), loaded.getPerms()) : null;
+        });
+        if (permissionSet == null) {
+            log.warn("共享权限集不存在: {}", id);
+        }
+        return Optional.ofNullable(permissionSet);
+    }
+
+    /**
+     * 获取角色、权限组合对应的本地权限集，不写入Redis
+     * 用于未引用共享权限集的历史会话，使其同样可以按权限位图鉴权
+     *
+     * @param roles 角色标识
+     * @param perms 权限标识
+     * @return 本地权限集
+     */
+    public PermissionSet local(Set<String> roles, Set<String> perms) {
+        return permissionSets.get(fingerprint(roles, perms), key -> compile(key, roles, perms));
+    }
+
+    /**
+     * 构建本地实例，同时编码权限位图
+     */
+    private PermissionSet compile(String id, Set<String> roles, Set<String> perms) {
+        return new PermissionSet(id, roles, perms, permissionRegistry.encode(perms));
+    }
+
+    /**
+     * 权限集ID：排序后的角色和权限的SHA-256，取前16位十六进制
+     * 内容相同的权限集在所有节点上得到相同的ID，内容变化时生成新的权限集，已有会话不受影响
+     */
+    static String fingerprint(Set<String> roles, Set<String> perms) {
+        StringBuilder content = new StringBuilder();
+        new TreeSet<>(roles == null ? Set.of() : roles).forEach(role -> content.append(role).append('\n'));
+        content.append('\n');
+        new TreeSet<>(perms == null ? Set.of() : perms).forEach(perm -> content.append(perm).append('\n'));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new InnerCommonException("权限集ID计算失败: " + e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.now.admin.service.auth.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.now.admin.service.auth.domain.LoginUserDetail;
 import com.now.admin.service.auth.domain.SysUserAuth;
 import com.now.admin.service.auth.service.SysUserAuthService;
 import com.now.admin.service.auth.mapper.SysUserAuthMapper;
@@ -8,6 +9,9 @@ import com.now.admin.service.sys.domain.SysUser;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 /**
 * @author zhaixinwei
 * @description 针对表【sys_user_auth(用户认证信息)】的数据库操作Service实现
@@ -17,7 +21,25 @@ import org.springframework.stereotype.Service;
 public class SysUserAuthServiceImpl extends ServiceImpl<SysUserAuthMapper, SysUserAuth>
     implements SysUserAuthService{
 
-
+    @Override
+    public Optional<LoginUserDetail> loadLoginUserByIdentifier(String identifier) {
+        return Optional.ofNullable(baseMapper.selectLoginUserByIdentifier(identifier));
+    }
+
+    @Override
+    public Optional<LoginUserDetail> loadLoginUserByUserId(Long userId) {
+        return Optional.ofNullable(baseMapper.selectLoginUserByUserId(userId));
+    }
+
+    @Override
+    public boolean updateCredential(Long id, String oldCredential, String newCredential) {
+        return lambdaUpdate()
+                .eq(SysUserAuth::getId, id)
+                .eq(SysUserAuth::getCredential, oldCredential)
+                .set(SysUserAuth::getCredential, newCredential)
+                .set(SysUserAuth::getUpdatedTime, LocalDateTime.now())
+                .update();
+    }
 }
 
 
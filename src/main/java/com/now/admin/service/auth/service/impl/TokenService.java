@@ -1,20 +1,37 @@
 package com.now.admin.service.auth.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.now.admin.common.config.SecretKeyConfig;
+import com.now.admin.common.config.SigningKeyRing;
 import com.now.admin.common.constant.AppStatusEnum;
 import com.now.admin.common.exception.InnerCommonException;
 import com.now.admin.service.auth.common.exception.AuthenticateException;
+import com.now.admin.service.auth.domain.ParsedToken;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
 @Slf4j
@@ -27,6 +44,12 @@ public class TokenService {
     // Token过期时间（毫秒）
     private final Long EXPIRATION = 1000 * 60 * 60 * 24 * 7L;
 
+    /**
+     * 访问Token有效期的随机缩短量上限，同一时间登录的用户不会在同一时刻集中刷新
+     */
+    @Value("${secret.token-expire-jitter:1h}")
+    private Duration tokenExpireJitter;
+
     // Token刷新时间（毫秒）
     private final Long REFRESH_EXPIRATION = 1000 * 60 * 60 * 24 * 30L;
 
@@ -37,6 +60,38 @@ public class TokenService {
 
     private final String CLAIM_KEY_CREATED = "created";
 
+    /**
+     * Token类型，访问Token和刷新Token的其他声明相同，按类型区分用途
+     */
+    private final String CLAIM_KEY_TOKEN_TYPE = "tokenType";
+
+    /**
+     * 已验签Token缓存的最大条目数
+     */
+    @Value("${secret.token-cache-size:10000}")
+    private long tokenCacheSize;
+
+    /**
+     * 已验签Token缓存，key为Token摘要，条目在Token过期时同步失效
+     * 同一Token重复请求时无需再次进行签名校验
+     */
+    private Cache<String, ParsedToken> verifiedTokenCache;
+
+    /**
+     * 预先构建的不可变解析器，按Token头中的kid从密钥环查找验签公钥
+     */
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        jwtParser = Jwts.parser()
+                .keyLocator(this::locateVerifyKey)
+                .build();
+        verifiedTokenCache = Caffeine.newBuilder()
+                .maximumSize(tokenCacheSize)
+                .expireAfter(Expiry.creating((String digest, ParsedToken parsedToken) -> remainingLifetime(parsedToken)))
+                .build();
+    }
 
     /**
      * 生成Token
@@ -49,7 +104,9 @@ public class TokenService {
         claims.put(CLAIM_KEY_USER_ID, userId);
         claims.put(CLAIM_KEY_LOGIN_FLAG, loginFlag);
         claims.put(CLAIM_KEY_CREATED, new Date());
-        return generateToken(claims, EXPIRATION);
+        claims.put(CLAIM_KEY_TOKEN_TYPE, ParsedToken.TYPE_ACCESS);
+        long jitter = tokenExpireJitter.toMillis();
+        return generateToken(claims, jitter > 0 ? EXPIRATION - ThreadLocalRandom.current().nextLong(jitter) : EXPIRATION);
     }
 
     /**
@@ -63,6 +120,7 @@ public class TokenService {
         claims.put(CLAIM_KEY_USER_ID, userId);
         claims.put(CLAIM_KEY_LOGIN_FLAG, loginFlag);
         claims.put(CLAIM_KEY_CREATED, new Date());
+        claims.put(CLAIM_KEY_TOKEN_TYPE, ParsedToken.TYPE_REFRESH);
         return generateToken(claims, REFRESH_EXPIRATION);
     }
 
@@ -73,31 +131,27 @@ public class TokenService {
      * @return Optional<String>
      */
     public Optional<String> refreshToken(String token) {
-        Date expirationDateFromToken = getExpirationDateFromToken(token);
-        if (expirationDateFromToken.before(new Date())) {
-            return Optional.empty();
+        ParsedToken parsedToken = parseToken(token);
+        Long userId = parsedToken.getUserId();
+        String loginFlag = parsedToken.getLoginFlag();
+        if (parsedToken.isRefreshToken() && Objects.nonNull(userId) && StringUtils.hasText(loginFlag)) {
+            return Optional.of(generateToken(userId, loginFlag));
         }
-        String result = getClaimFromToken(token, (claims -> {
-            Long userId =(Long) claims.get(CLAIM_KEY_USER_ID);
-            String loginFlag =(String) claims.get(CLAIM_KEY_LOGIN_FLAG);
-            if (Objects.nonNull(userId) && StringUtils.hasText(loginFlag)) {
-                return generateToken(userId, loginFlag);
-            }
-            return null;
-        }));
-        return Optional.ofNullable(result);
+        return Optional.empty();
     }
 
 
     private String generateToken(Map<String, Object> claims, Long refreshExpiration) {
         Date now = new Date();
         Date expirationDate = new Date(now.getTime() + refreshExpiration);
+        SigningKeyRing.SigningKey signingKey = secretKeyConfig.getKeyRing().getActiveKey();
         return Jwts.builder()
+                .header().keyId(signingKey.getKid()).and()
                 .claims(claims)
                 .issuedAt(now)
                 .expiration(expirationDate)
-                // 使用私钥签名
-                .signWith(secretKeyConfig.getPrivateKey())
+                // 使用当前密钥按配置的算法签名
+                .signWith(signingKey.getSignKey(), secretKeyConfig.getJwtAlgorithm().getSignatureAlgorithm())
                 .compact();
     }
 
@@ -110,8 +164,7 @@ public class TokenService {
      * @return true=有效，false=无效
      */
     public boolean validateToken(String token) {
-        getClaimsFromToken(token);
-        return !isTokenExpired(token);
+        return !parseToken(token).isExpired();
     }
 
     /**
@@ -121,8 +174,8 @@ public class TokenService {
      * @return true=有效，false=无效
      */
     public boolean validateToken(String token, Long userId) {
-        Long tokenUserId = getUserIdFromToken(token);
-        return (Objects.equals(tokenUserId, userId) && !isTokenExpired(token));
+        ParsedToken parsedToken = parseToken(token);
+        return (Objects.equals(parsedToken.getUserId(), userId) && !parsedToken.isExpired());
 
     }
 
@@ -133,13 +186,43 @@ public class TokenService {
      * @return true=已过期，false=未过期
      */
     public boolean isTokenExpired(String token) throws AuthenticateException{
-        Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+        return parseToken(token).isExpired();
     }
 
 
     // ================= 解析token =================
 
+    /**
+     * 解析Token
+     * 只做一次签名校验，得到用户ID、登录标识、签发时间和过期时间；
+     * 校验通过的Token按摘要缓存，同一Token再次解析时直接命中缓存，不再做签名校验
+     *
+     * @param token JWT Token
+     * @return 已验签的Token
+     * @throws AuthenticateException Token无效或已过期时抛出
+     */
+    public ParsedToken parseToken(String token) throws AuthenticateException {
+        if (!StringUtils.hasText(token)) {
+            throw new AuthenticateException(AppStatusEnum.VALIDATE_TOKEN_FAIL);
+        }
+        String digest = digest(token);
+        ParsedToken parsedToken = verifiedTokenCache.getIfPresent(digest);
+        // 签发Token的密钥已退役时，缓存结果不再可信
+        if (parsedToken != null && secretKeyConfig.getKeyRing().findVerifyKey(parsedToken.getKid()).isEmpty()) {
+            verifiedTokenCache.invalidate(digest);
+            parsedToken = null;
+        }
+        if (parsedToken == null) {
+            parsedToken = toParsedToken(parseSignedClaims(token));
+            verifiedTokenCache.put(digest, parsedToken);
+        }
+        if (parsedToken.isExpired()) {
+            verifiedTokenCache.invalidate(digest);
+            throw new AuthenticateException(AppStatusEnum.TOKEN_EXPIRED);
+        }
+        return parsedToken;
+    }
+
     /**
      * 从Token中获取所有Claims
      *
@@ -148,24 +231,7 @@ public class TokenService {
      * @throws InnerCommonException Token解析失败时抛出
      */
     public Claims getClaimsFromToken(String token) throws AuthenticateException {
-        try {
-            return Jwts.parser()
-                    .verifyWith(secretKeyConfig.getPublicKey())  // 使用RSA公钥验证签名
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (ExpiredJwtException e) {
-            throw new AuthenticateException(AppStatusEnum.TOKEN_EXPIRED);
-        } catch (MalformedJwtException e) {
-            log.error("Token格式错误({})",token);
-            throw new AuthenticateException(AppStatusEnum.VALIDATE_TOKEN_FAIL);
-        } catch (SignatureException e) {
-            log.error("Token签名验证失败({})",token);
-            throw new AuthenticateException(AppStatusEnum.VALIDATE_TOKEN_FAIL);
-        } catch (Exception e) {
-            log.error("Token解析失败({})",token);
-            throw new AuthenticateException(AppStatusEnum.VALIDATE_TOKEN_FAIL);
-        }
+        return parseSignedClaims(token).getPayload();
     }
 
     /**
@@ -175,7 +241,7 @@ public class TokenService {
      * @return 过期时间
      */
     public Date getExpirationDateFromToken(String token) throws InnerCommonException {
-        return getClaimFromToken(token, Claims::getExpiration);
+        return parseToken(token).getExpiration();
     }
 
     /**
@@ -185,18 +251,11 @@ public class TokenService {
      * @return 用户ID
      */
     public Long getUserIdFromToken(String token) throws AuthenticateException {
-        Claims claims = getClaimsFromToken(token);
-        Object userId = claims.get(CLAIM_KEY_USER_ID);
-        if (userId instanceof Integer) {
-            return ((Integer) userId).longValue();
-        }
-        return (Long) userId;
+        return parseToken(token).getUserId();
     }
 
     public String getLoginFlagFromToken(String token) throws AuthenticateException {
-        Claims claims = getClaimsFromToken(token);
-        Object loginFlag = claims.get(CLAIM_KEY_LOGIN_FLAG);
-        return String.valueOf(loginFlag);
+        return parseToken(token).getLoginFlag();
     }
 
     /**
@@ -211,4 +270,67 @@ public class TokenService {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * 验签并解析Token
+     */
+    private Jws<Claims> parseSignedClaims(String token) throws AuthenticateException {
+        try {
+            return jwtParser.parseSignedClaims(token);
+        } catch (ExpiredJwtException e) {
+            throw new AuthenticateException(AppStatusEnum.TOKEN_EXPIRED);
+        } catch (MalformedJwtException e) {
+            log.warn("Token格式错误，摘要:{}", digest(token));
+            throw new AuthenticateException(AppStatusEnum.VALIDATE_TOKEN_FAIL);
+        } catch (SignatureException e) {
+            log.warn("Token签名验证失败，摘要:{}", digest(token));
+            throw new AuthenticateException(AppStatusEnum.VALIDATE_TOKEN_FAIL);
+        } catch (Exception e) {
+            log.warn("Token解析失败，摘要:{}", digest(token));
+            throw new AuthenticateException(AppStatusEnum.VALIDATE_TOKEN_FAIL);
+        }
+    }
+
+    /**
+     * 按Token头中的kid查找验签公钥，未携带kid的历史Token使用启动时加载的密钥
+     */
+    private Key locateVerifyKey(Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        return secretKeyConfig.getKeyRing().findVerifyKey(kid)
+                .map(SigningKeyRing.SigningKey::getVerifyKey)
+                .orElseThrow(() -> new AuthenticateException(AppStatusEnum.VALIDATE_TOKEN_FAIL));
+    }
+
+    private ParsedToken toParsedToken(Jws<Claims> jws) {
+        Claims claims = jws.getPayload();
+        Object userId = claims.get(CLAIM_KEY_USER_ID);
+        Long id = userId instanceof Number ? ((Number) userId).longValue() : null;
+        Object loginFlag = claims.get(CLAIM_KEY_LOGIN_FLAG);
+        return new ParsedToken(id, Objects.isNull(loginFlag) ? null : String.valueOf(loginFlag),
+                claims.getIssuedAt(), claims.getExpiration(), jws.getHeader().getKeyId(),
+                claims.get(CLAIM_KEY_TOKEN_TYPE, String.class));
+    }
+
+    /**
+     * Token剩余有效期，作为缓存条目的存活时间
+     */
+    private static Duration remainingLifetime(ParsedToken parsedToken) {
+        if (parsedToken.getExpiration() == null) {
+            return Duration.ZERO;
+        }
+        long remaining = parsedToken.getExpiration().getTime() - System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(remaining, 0));
+    }
+
+    /**
+     * Token摘要（SHA-256），避免缓存、Redis或日志中持有原始Token
+     */
+    static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new InnerCommonException("Token摘要计算失败: " + e.getMessage());
+        }
+    }
+
 }
@@ -0,0 +1,46 @@
+package com.now.admin.service.sys.controller;
+
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import com.now.admin.service.auth.util.SecurityContextUtil;
+import com.now.admin.service.sys.service.impl.SysMenuTreeService;
+import jakarta.annotation.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/menu/")
+public class SysMenuController {
+
+    @Resource
+    private SysMenuTreeService sysMenuTreeService;
+
+    /**
+     * 当前用户的菜单树
+     * 响应体按角色组合预先序列化，客户端携带的 If-None-Match 与ETag一致时返回304
+     */
+    @GetMapping("/tree")
+    public ResponseEntity<byte[]> getMenuTree(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<String> roles = SecurityContextUtil.getCurrentUser().map(LoginUserDetail::getRoles).orElse(Set.of());
+        SysMenuTreeService.MenuTree menuTree = sysMenuTreeService.getMenuTree(roles);
+        if (ifNoneMatch != null && ifNoneMatch.contains(menuTree.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(menuTree.getEtag())
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(menuTree.getEtag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(menuTree.getBody());
+    }
+}
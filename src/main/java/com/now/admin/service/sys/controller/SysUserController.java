@@ -1,8 +1,9 @@
 package com.now.admin.service.sys.controller;
 
+import com.now.admin.common.annotation.RateLimit;
 import com.now.admin.common.domain.Result;
 import com.now.admin.service.sys.domain.SysUser;
-import com.now.admin.service.sys.service.SysUserService;
+import com.now.admin.service.sys.provider.SysUserProvider;
 import jakarta.annotation.Resource;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,12 +15,13 @@ import org.springframework.web.bind.annotation.RestController;
 public class SysUserController {
 
     @Resource
-    private SysUserService sysUserService;
+    private SysUserProvider sysUserProvider;
 
 
+    @RateLimit(keyPrefix = "user:get", seconds = 60, maxCount = 120)
     @GetMapping("/get/{id}")
     public Result<SysUser> getUserById(@PathVariable Long id){
-        return  Result.success(sysUserService.getUserById(id));
+        return  Result.success(sysUserProvider.getById(id).orElse(null));
     }
 
 }
@@ -0,0 +1,48 @@
+package com.now.admin.service.sys.domain.vo;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 菜单树节点，前端路由使用
+ */
+@Data
+public class SysMenuTreeVo {
+
+    private Long id;
+
+    private Long parentId;
+
+    /**
+     * 菜单名称
+     */
+    private String name;
+
+    /**
+     * 前端路由path
+     */
+    private String path;
+
+    /**
+     * 前端组件路径
+     */
+    private String component;
+
+    /**
+     * M目录 C菜单
+     */
+    private String type;
+
+    private String icon;
+
+    private Integer sort;
+
+    /**
+     * 是否隐藏路由
+     */
+    private Boolean hidden;
+
+    private List<SysMenuTreeVo> children = new ArrayList<>();
+}
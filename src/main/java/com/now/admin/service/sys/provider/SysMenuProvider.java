@@ -0,0 +1,33 @@
+package com.now.admin.service.sys.provider;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.now.admin.service.sys.domain.SysMenu;
+import com.now.admin.service.sys.service.SysMenuService;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class SysMenuProvider {
+
+    @Resource
+    private SysMenuService sysMenuService;
+
+    /**
+     * 查询全部菜单的权限标识
+     *
+     * @return 去重后的权限标识
+     */
+    public Set<String> listPerms() {
+        return sysMenuService.list(new LambdaQueryWrapper<SysMenu>()
+                        .select(SysMenu::getPerms)
+                        .isNotNull(SysMenu::getPerms))
+                .stream()
+                .map(SysMenu::getPerms)
+                .filter(StringUtils::hasText)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,175 @@
+package com.now.admin.service.sys.provider;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.now.admin.service.sys.domain.SysMenu;
+import com.now.admin.service.sys.domain.SysRelation;
+import com.now.admin.service.sys.domain.SysRole;
+import com.now.admin.service.sys.service.SysMenuService;
+import com.now.admin.service.sys.service.SysRelationService;
+import com.now.admin.service.sys.service.SysRoleService;
+import com.now.admin.service.sys.service.impl.SysRoleVersionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 角色权限解析
+ * 按角色ID缓存角色标识和菜单权限，缓存项记录加载时的角色版本号和全局版本号；
+ * 每次解析只访问一次Redis比较版本号，版本未变化的角色直接使用缓存，变化或未缓存的角色批量从数据库加载
+ */
+@Slf4j
+@Service
+public class SysRoleProvider {
+
+    /**
+     * 角色-菜单关联类型
+     */
+    private static final String ROLE_MENU_RELATION = "role_menu";
+
+    @Resource
+    private SysRoleService sysRoleService;
+
+    @Resource
+    private SysRelationService sysRelationService;
+
+    @Resource
+    private SysMenuService sysMenuService;
+
+    @Resource
+    private SysRoleVersionService sysRoleVersionService;
+
+    /**
+     * 角色权限缓存的最大角色数
+     */
+    @Value("${sys.role-cache.size:1000}")
+    private long roleCacheSize;
+
+    /**
+     * 角色ID -> 角色权限
+     */
+    private Cache<Long, RolePerms> roleCache;
+
+    @PostConstruct
+    public void init() {
+        roleCache = Caffeine.newBuilder()
+                .maximumSize(roleCacheSize)
+                .build();
+    }
+
+    /**
+     * 解析角色的标识和菜单权限
+     *
+     * @param roleIds 角色ID
+     * @return 角色ID -> 角色权限，包含每个请求的角色
+     */
+    public Map<Long, RolePerms> resolve(Collection<Long> roleIds) {
+        List<Long> ids = roleIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        long[] versions;
+        try {
+            versions = sysRoleVersionService.versions(ids);
+        } catch (Exception e) {
+            // 无法确认版本时不使用缓存
+            log.warn("角色版本号读取失败，直接查询数据库: {}", e.getMessage());
+            return load(ids, null);
+        }
+
+        Map<Long, RolePerms> result = new HashMap<>(ids.size() * 2);
+        Map<Long, long[]> misses = new HashMap<>();
+        long globalVersion = versions[0];
+        for (int i = 0; i < ids.size(); i++) {
+            Long roleId = ids.get(i);
+            long version = versions[i + 1];
+            RolePerms cached = roleCache.getIfPresent(roleId);
+            if (cached != null && cached.getGlobalVersion() == globalVersion && cached.getVersion() == version) {
+                result.put(roleId, cached);
+            } else {
+                misses.put(roleId, new long[]{globalVersion, version});
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<Long, RolePerms> loaded = load(new ArrayList<>(misses.keySet()), misses);
+            roleCache.putAll(loaded);
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    /**
+     * 从数据库批量加载角色权限：角色、角色-菜单关联、菜单各一次查询
+     *
+     * @param roleIds  角色ID
+     * @param versions 角色ID -> [全局版本号, 角色版本号]，为null时版本号记为-1，不会被缓存命中
+     */
+    private Map<Long, RolePerms> load(List<Long> roleIds, Map<Long, long[]> versions) {
+        Map<Long, String> roleFlags = new HashMap<>();
+        sysRoleService.listByIds(roleIds).forEach(role -> roleFlags.put(role.getId(), role.getRoleFlag()));
+
+        List<SysRelation> relations = sysRelationService.queryRelation(roleIds, ROLE_MENU_RELATION);
+        Map<Long, String> menuPerms = new HashMap<>();
+        List<Long> menuIds = relations.stream().map(SysRelation::getTargetId).distinct().toList();
+        if (!CollectionUtils.isEmpty(menuIds)) {
+            sysMenuService.listByIds(menuIds).stream()
+                    .filter(menu -> StringUtils.hasText(menu.getPerms()))
+                    .forEach(menu -> menuPerms.put(menu.getId(), menu.getPerms()));
+        }
+        Map<Long, Set<String>> rolePerms = relations.stream()
+                .filter(relation -> menuPerms.containsKey(relation.getTargetId()))
+                .collect(Collectors.groupingBy(SysRelation::getSourceId,
+                        Collectors.mapping(relation -> menuPerms.get(relation.getTargetId()), Collectors.toSet())));
+
+        Map<Long, RolePerms> loaded = new HashMap<>(roleIds.size() * 2);
+        for (Long roleId : roleIds) {
+            long[] version = versions == null ? new long[]{-1L, -1L} : versions.get(roleId);
+            loaded.put(roleId, new RolePerms(roleId, roleFlags.get(roleId),
+                    Set.copyOf(rolePerms.getOrDefault(roleId, Set.of())), version[0], version[1]));
+        }
+        return loaded;
+    }
+
+    /**
+     * 单个角色解析后的权限
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class RolePerms {
+
+        /**
+         * 角色ID
+         */
+        private final Long roleId;
+
+        /**
+         * 角色标识，角色不存在时为null
+         */
+        private final String roleFlag;
+
+        /**
+         * 角色关联菜单的权限标识
+         */
+        private final Set<String> perms;
+
+        /**
+         * 加载时的全局版本号
+         */
+        private final long globalVersion;
+
+        /**
+         * 加载时的角色版本号
+         */
+        private final long version;
+    }
+}
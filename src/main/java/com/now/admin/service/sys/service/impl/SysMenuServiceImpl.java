@@ -1,20 +1,172 @@
 package com.now.admin.service.sys.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.now.admin.service.sys.domain.SysMenu;
+import com.now.admin.service.sys.domain.SysRelation;
 import com.now.admin.service.sys.service.SysMenuService;
 import com.now.admin.service.sys.mapper.SysMenuMapper;
+import com.now.admin.service.sys.service.SysRelationService;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
 * @author A51-18
 * @description 针对表【sys_menu(菜单权限表)】的数据库操作Service实现
+* 按ID修改、删除菜单时递增引用该菜单的角色的版本号，按条件修改时递增全局版本号；
+* 新增菜单在关联到角色之前不影响任何角色，不需要递增；任意菜单修改都会递增菜单版本号
 * @createDate 2026-04-12 11:04:13
 */
 @Service
 public class SysMenuServiceImpl extends ServiceImpl<SysMenuMapper, SysMenu>
     implements SysMenuService{
 
+    /**
+     * 角色-菜单关联类型
+     */
+    private static final String ROLE_MENU_RELATION = "role_menu";
+
+    @Resource
+    private SysRelationService sysRelationService;
+
+    @Resource
+    private SysRoleVersionService sysRoleVersionService;
+
+    @Override
+    public boolean updateById(SysMenu entity) {
+        List<Long> roleIds = roleIdsOf(List.of(entity.getId()));
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            sysRoleVersionService.bump(roleIds);
+            sysRoleVersionService.bumpMenus();
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean updateBatchById(Collection<SysMenu> entityList, int batchSize) {
+        List<Long> roleIds = roleIdsOf(entityList.stream().map(SysMenu::getId).filter(Objects::nonNull).toList());
+        boolean updated = super.updateBatchById(entityList, batchSize);
+        sysRoleVersionService.bump(roleIds);
+        sysRoleVersionService.bumpMenus();
+        return updated;
+    }
+
+    @Override
+    public boolean save(SysMenu entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            sysRoleVersionService.bumpMenus();
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean saveBatch(Collection<SysMenu> entityList, int batchSize) {
+        boolean saved = super.saveBatch(entityList, batchSize);
+        sysRoleVersionService.bumpMenus();
+        return saved;
+    }
+
+    @Override
+    public boolean saveOrUpdate(SysMenu entity) {
+        List<Long> roleIds = entity.getId() == null ? List.of() : roleIdsOf(List.of(entity.getId()));
+        boolean saved = super.saveOrUpdate(entity);
+        if (saved) {
+            sysRoleVersionService.bump(roleIds);
+            sysRoleVersionService.bumpMenus();
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean update(SysMenu entity, Wrapper<SysMenu> updateWrapper) {
+        boolean updated = super.update(entity, updateWrapper);
+        if (updated) {
+            sysRoleVersionService.bumpAll();
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        List<Long> roleIds = roleIdsOf(List.of(toMenuId(id)));
+        boolean removed = super.removeById(id);
+        if (removed) {
+            sysRoleVersionService.bump(roleIds);
+            sysRoleVersionService.bumpMenus();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeById(SysMenu entity) {
+        List<Long> roleIds = roleIdsOf(List.of(entity.getId()));
+        boolean removed = super.removeById(entity);
+        if (removed) {
+            sysRoleVersionService.bump(roleIds);
+            sysRoleVersionService.bumpMenus();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<?> list) {
+        List<Long> roleIds = roleIdsOf(list.stream().map(this::toMenuId).filter(Objects::nonNull).toList());
+        boolean removed = super.removeByIds(list);
+        if (removed) {
+            sysRoleVersionService.bump(roleIds);
+            sysRoleVersionService.bumpMenus();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeByMap(Map<String, Object> columnMap) {
+        boolean removed = super.removeByMap(columnMap);
+        if (removed) {
+            sysRoleVersionService.bumpAll();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Wrapper<SysMenu> queryWrapper) {
+        boolean removed = super.remove(queryWrapper);
+        if (removed) {
+            sysRoleVersionService.bumpAll();
+        }
+        return removed;
+    }
+
+    /**
+     * 查询引用了指定菜单的角色
+     */
+    private List<Long> roleIdsOf(List<Long> menuIds) {
+        if (CollectionUtils.isEmpty(menuIds)) {
+            return List.of();
+        }
+        return sysRelationService.list(new LambdaQueryWrapper<SysRelation>()
+                        .select(SysRelation::getSourceId)
+                        .in(SysRelation::getTargetId, menuIds)
+                        .eq(SysRelation::getRelationType, ROLE_MENU_RELATION))
+                .stream()
+                .map(SysRelation::getSourceId)
+                .distinct()
+                .toList();
+    }
+
+    private Long toMenuId(Object id) {
+        return id instanceof SysMenu menu ? menu.getId() : Long.valueOf(id.toString());
+    }
 }
 
 
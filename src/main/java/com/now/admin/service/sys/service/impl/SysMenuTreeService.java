@@ -0,0 +1,276 @@
+package com.now.admin.service.sys.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.now.admin.common.constant.SystemStatusConstant;
+import com.now.admin.common.domain.Result;
+import com.now.admin.common.exception.InnerCommonException;
+import com.now.admin.common.util.JsonUtil;
+import com.now.admin.service.sys.domain.SysMenu;
+import com.now.admin.service.sys.domain.SysRelation;
+import com.now.admin.service.sys.domain.SysRole;
+import com.now.admin.service.sys.domain.vo.SysMenuTreeVo;
+import com.now.admin.service.sys.service.SysMenuService;
+import com.now.admin.service.sys.service.SysRelationService;
+import com.now.admin.service.sys.service.SysRoleService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 菜单树服务
+ * 全量菜单只在菜单版本变化时重新加载；按角色组合裁剪后的菜单树序列化为最终响应体，
+ * 连同内容摘要（ETag）按角色组合缓存，请求时直接返回缓存的字节。
+ *
+ * 缓存项记录构建时的全局、菜单和各角色版本号，距上次校验超过 check-interval 时访问一次Redis比较版本号，
+ * 版本未变化则继续使用，否则重新构建
+ */
+@Slf4j
+@Service
+public class SysMenuTreeService {
+
+    /**
+     * 角色-菜单关联类型
+     */
+    private static final String ROLE_MENU_RELATION = "role_menu";
+
+    /**
+     * 按钮类型，不属于路由
+     */
+    private static final String BUTTON_TYPE = "F";
+
+    @Resource
+    private SysMenuService sysMenuService;
+
+    @Resource
+    private SysRoleService sysRoleService;
+
+    @Resource
+    private SysRelationService sysRelationService;
+
+    @Resource
+    private SysRoleVersionService sysRoleVersionService;
+
+    /**
+     * 缓存的角色组合数
+     */
+    @Value("${sys.menu-tree.cache-size:1000}")
+    private long cacheSize;
+
+    /**
+     * 版本号校验间隔
+     */
+    @Value("${sys.menu-tree.check-interval:5s}")
+    private Duration checkInterval;
+
+    /**
+     * 角色组合 -> 菜单树响应
+     */
+    private Cache<String, MenuTree> menuTrees;
+
+    /**
+     * 全量菜单快照
+     */
+    private volatile MenuSnapshot menuSnapshot;
+
+    @PostConstruct
+    public void init() {
+        menuTrees = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    /**
+     * 获取角色组合对应的菜单树
+     *
+     * @param roleFlags 角色标识
+     * @return 菜单树响应
+     */
+    public MenuTree getMenuTree(Set<String> roleFlags) {
+        String key = String.join(",", new TreeSet<>(roleFlags == null ? Set.of() : roleFlags));
+        MenuTree menuTree = menuTrees.getIfPresent(key);
+        long now = System.currentTimeMillis();
+        if (menuTree != null && now - menuTree.checkedAt < checkInterval.toMillis()) {
+            return menuTree;
+        }
+
+        if (menuTree != null) {
+            long[] versions;
+            try {
+                versions = sysRoleVersionService.menuVersions(menuTree.roleIds);
+            } catch (Exception e) {
+                // 无法确认版本时继续使用已有结果
+                log.warn("菜单树版本号读取失败，使用缓存: {}", e.getMessage());
+                return menuTree;
+            }
+            if (Arrays.equals(versions, menuTree.versions)) {
+                menuTree.checkedAt = now;
+                return menuTree;
+            }
+            menuTrees.invalidate(key);
+        }
+        return menuTrees.get(key, k -> build(roleFlags));
+    }
+
+    private MenuTree build(Set<String> roleFlags) {
+        List<Long> roleIds = CollectionUtils.isEmpty(roleFlags) ? List.of()
+                : sysRoleService.list(new LambdaQueryWrapper<SysRole>()
+                        .select(SysRole::getId)
+                        .in(SysRole::getRoleFlag, roleFlags))
+                .stream().map(SysRole::getId).sorted().toList();
+        long[] versions;
+        try {
+            versions = sysRoleVersionService.menuVersions(roleIds);
+        } catch (Exception e) {
+            // 版本号未知，下次校验时必然重新构建
+            log.warn("菜单树版本号读取失败: {}", e.getMessage());
+            versions = new long[roleIds.size() + 2];
+            Arrays.fill(versions, -1L);
+        }
+        MenuSnapshot snapshot = snapshot(versions[0], versions[1]);
+
+        // 角色关联的菜单及其全部上级
+        Set<Long> menuIds = new HashSet<>();
+        for (SysRelation relation : sysRelationService.queryRelation(roleIds, ROLE_MENU_RELATION)) {
+            Long menuId = relation.getTargetId();
+            while (menuId != null && snapshot.menus.containsKey(menuId) && menuIds.add(menuId)) {
+                menuId = snapshot.menus.get(menuId).getParentId();
+            }
+        }
+        List<SysMenuTreeVo> tree = children(snapshot, snapshot.roots, menuIds);
+
+        byte[] body;
+        try {
+            body = JsonUtil.mapper.writeValueAsBytes(Result.success(tree));
+        } catch (Exception e) {
+            throw new InnerCommonException("菜单树序列化失败: " + e.getMessage());
+        }
+        return new MenuTree(etag(body), body, roleIds, versions, System.currentTimeMillis());
+    }
+
+    private List<SysMenuTreeVo> children(MenuSnapshot snapshot, List<Long> ids, Set<Long> menuIds) {
+        List<SysMenuTreeVo> nodes = new ArrayList<>();
+        for (Long id : ids) {
+            if (!menuIds.contains(id)) {
+                continue;
+            }
+            SysMenu menu = snapshot.menus.get(id);
+            SysMenuTreeVo node = new SysMenuTreeVo();
+            node.setId(menu.getId());
+            node.setParentId(menu.getParentId());
+            node.setName(menu.getName());
+            node.setPath(menu.getPath());
+            node.setComponent(menu.getComponent());
+            node.setType(menu.getType());
+            node.setIcon(menu.getIcon());
+            node.setSort(menu.getSort());
+            node.setHidden(menu.getHidden());
+            node.setChildren(children(snapshot, snapshot.children.getOrDefault(id, List.of()), menuIds));
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    /**
+     * 获取全量菜单快照，全局或菜单版本变化时重新加载
+     */
+    private MenuSnapshot snapshot(long globalVersion, long menuVersion) {
+        MenuSnapshot snapshot = menuSnapshot;
+        if (snapshot != null && snapshot.globalVersion == globalVersion && snapshot.menuVersion == menuVersion) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = menuSnapshot;
+            if (snapshot == null || snapshot.globalVersion != globalVersion || snapshot.menuVersion != menuVersion) {
+                snapshot = new MenuSnapshot(globalVersion, menuVersion, sysMenuService.list());
+                menuSnapshot = snapshot;
+            }
+            return snapshot;
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (Exception e) {
+            throw new InnerCommonException("菜单树摘要计算失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 序列化后的菜单树响应
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class MenuTree {
+
+        /**
+         * 响应体摘要，作为ETag
+         */
+        private final String etag;
+
+        /**
+         * 序列化后的响应体
+         */
+        private final byte[] body;
+
+        private final List<Long> roleIds;
+
+        private final long[] versions;
+
+        /**
+         * 上次校验版本号的时间
+         */
+        private volatile long checkedAt;
+    }
+
+    /**
+     * 全量菜单快照：启用的非按钮菜单，子菜单按sort排序
+     */
+    private static class MenuSnapshot {
+
+        private final long globalVersion;
+
+        private final long menuVersion;
+
+        private final Map<Long, SysMenu> menus = new HashMap<>();
+
+        private final Map<Long, List<Long>> children = new HashMap<>();
+
+        private final List<Long> roots = new ArrayList<>();
+
+        MenuSnapshot(long globalVersion, long menuVersion, List<SysMenu> allMenus) {
+            this.globalVersion = globalVersion;
+            this.menuVersion = menuVersion;
+            List<SysMenu> sorted = allMenus.stream()
+                    .filter(menu -> !BUTTON_TYPE.equals(menu.getType()))
+                    .filter(menu -> menu.getStatus() == null || SystemStatusConstant.NORMAL_STATUS.equals(menu.getStatus()))
+                    .sorted(Comparator.comparing(SysMenu::getSort, Comparator.nullsLast(Integer::compareTo))
+                            .thenComparing(SysMenu::getId))
+                    .toList();
+            sorted.forEach(menu -> menus.put(menu.getId(), menu));
+            Set<Long> allIds = new HashSet<>();
+            allMenus.forEach(menu -> allIds.add(menu.getId()));
+            for (SysMenu menu : sorted) {
+                Long parentId = menu.getParentId();
+                if (parentId == null || !allIds.contains(parentId)) {
+                    roots.add(menu.getId());
+                } else if (menus.containsKey(parentId)) {
+                    children.computeIfAbsent(parentId, id -> new ArrayList<>()).add(menu.getId());
+                }
+                // 上级被禁用的菜单不可达，随上级一起隐藏
+            }
+        }
+    }
+}
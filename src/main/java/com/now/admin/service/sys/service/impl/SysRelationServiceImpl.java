@@ -1,5 +1,6 @@
 package com.now.admin.service.sys.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.now.admin.service.sys.domain.SysRelation;
@@ -10,6 +11,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -17,15 +22,25 @@ import java.util.Objects;
 /**
 * @author A51-18
 * @description 针对表【sys_relation(系统关联表)】的数据库操作Service实现
+* 新增、按ID修改或删除角色-菜单关联（role_menu）时递增对应角色的版本号，修改前后的角色都会递增；
+* 按条件修改、删除时无法确定角色范围，递增全局版本号；链式更新（lambdaUpdate）不经过这里，需要自行调用 SysRoleVersionService
 * @createDate 2026-04-12 11:04:18
 */
 @Service
 public class SysRelationServiceImpl extends ServiceImpl<SysRelationMapper, SysRelation>
     implements SysRelationService{
 
+    /**
+     * 角色-菜单关联类型
+     */
+    private static final String ROLE_MENU_RELATION = "role_menu";
+
     @Resource
     private SysRelationMapper sysRelationMapper;
 
+    @Resource
+    private SysRoleVersionService sysRoleVersionService;
+
     @Override
     public List<SysRelation> queryRelation(Long sourceId, String type) {
         if(Objects.isNull(sourceId) || !StringUtils.hasText(type)){
@@ -49,6 +64,151 @@ public class SysRelationServiceImpl extends ServiceImpl<SysRelationMapper, SysRe
         return sysRelationMapper.selectList(lambdaQueryWrapper);
     }
 
+    @Override
+    public boolean save(SysRelation entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            sysRoleVersionService.bump(roleIdsOf(List.of(entity)));
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean saveBatch(Collection<SysRelation> entityList, int batchSize) {
+        boolean saved = super.saveBatch(entityList, batchSize);
+        sysRoleVersionService.bump(roleIdsOf(entityList));
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(SysRelation entity) {
+        List<Long> roleIds = updatedRoleIdsOf(List.of(entity));
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            sysRoleVersionService.bump(roleIds);
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean updateBatchById(Collection<SysRelation> entityList, int batchSize) {
+        List<Long> roleIds = updatedRoleIdsOf(entityList);
+        boolean updated = super.updateBatchById(entityList, batchSize);
+        sysRoleVersionService.bump(roleIds);
+        return updated;
+    }
+
+    @Override
+    public boolean saveOrUpdate(SysRelation entity) {
+        List<Long> roleIds = entity.getId() == null ? roleIdsOf(List.of(entity)) : updatedRoleIdsOf(List.of(entity));
+        boolean saved = super.saveOrUpdate(entity);
+        if (saved) {
+            sysRoleVersionService.bump(roleIds);
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean update(SysRelation entity, Wrapper<SysRelation> updateWrapper) {
+        boolean updated = super.update(entity, updateWrapper);
+        if (updated) {
+            sysRoleVersionService.bumpAll();
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        List<Long> roleIds = roleIdsOf(existing(List.of(toRelationId(id))));
+        boolean removed = super.removeById(id);
+        if (removed) {
+            sysRoleVersionService.bump(roleIds);
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeById(SysRelation entity) {
+        List<Long> roleIds = roleIdsOf(existing(List.of(entity.getId())));
+        boolean removed = super.removeById(entity);
+        if (removed) {
+            sysRoleVersionService.bump(roleIds);
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<?> list) {
+        List<Long> roleIds = roleIdsOf(existing(list.stream().map(this::toRelationId).toList()));
+        boolean removed = super.removeByIds(list);
+        if (removed) {
+            sysRoleVersionService.bump(roleIds);
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeByMap(Map<String, Object> columnMap) {
+        boolean removed = super.removeByMap(columnMap);
+        if (removed) {
+            sysRoleVersionService.bumpAll();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Wrapper<SysRelation> queryWrapper) {
+        boolean removed = super.remove(queryWrapper);
+        if (removed) {
+            sysRoleVersionService.bumpAll();
+        }
+        return removed;
+    }
+
+    /**
+     * 查询修改前的关联
+     */
+    private List<SysRelation> existing(List<Long> ids) {
+        List<Long> relationIds = ids.stream().filter(Objects::nonNull).toList();
+        if (relationIds.isEmpty()) {
+            return List.of();
+        }
+        return sysRelationMapper.selectByIds(relationIds);
+    }
+
+    /**
+     * 角色-菜单关联涉及的角色
+     */
+    private List<Long> roleIdsOf(Collection<SysRelation> relations) {
+        return relations.stream()
+                .filter(relation -> ROLE_MENU_RELATION.equals(relation.getRelationType()))
+                .map(SysRelation::getSourceId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * 按ID修改关联时涉及的角色：修改前的角色，以及修改后的角色（未指定的字段沿用修改前的值）
+     */
+    private List<Long> updatedRoleIdsOf(Collection<SysRelation> updates) {
+        Map<Long, SysRelation> before = new HashMap<>();
+        existing(updates.stream().map(SysRelation::getId).toList()).forEach(relation -> before.put(relation.getId(), relation));
+        List<SysRelation> relations = new ArrayList<>(before.values());
+        for (SysRelation update : updates) {
+            SysRelation old = before.get(update.getId());
+            SysRelation after = new SysRelation();
+            after.setSourceId(update.getSourceId() != null || old == null ? update.getSourceId() : old.getSourceId());
+            after.setRelationType(update.getRelationType() != null || old == null ? update.getRelationType() : old.getRelationType());
+            relations.add(after);
+        }
+        return roleIdsOf(relations);
+    }
+
+    private Long toRelationId(Object id) {
+        return id instanceof SysRelation relation ? relation.getId() : Long.valueOf(id.toString());
+    }
+
 }
 
 
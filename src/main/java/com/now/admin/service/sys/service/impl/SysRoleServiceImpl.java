@@ -1,20 +1,115 @@
 package com.now.admin.service.sys.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.now.admin.service.sys.domain.SysRole;
 import com.now.admin.service.sys.service.SysRoleService;
 import com.now.admin.service.sys.mapper.SysRoleMapper;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 /**
 * @author A51-18
 * @description 针对表【sys_role(角色表)】的数据库操作Service实现
+* 按ID修改、删除角色时递增对应角色的版本号，按条件修改时递增全局版本号；
+* 链式更新（lambdaUpdate）不经过这里，需要自行调用 SysRoleVersionService
 * @createDate 2026-04-12 11:03:56
 */
 @Service
 public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole>
     implements SysRoleService{
 
+    @Resource
+    private SysRoleVersionService sysRoleVersionService;
+
+    @Override
+    public boolean updateById(SysRole entity) {
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            sysRoleVersionService.bump(List.of(entity.getId()));
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean updateBatchById(Collection<SysRole> entityList, int batchSize) {
+        boolean updated = super.updateBatchById(entityList, batchSize);
+        sysRoleVersionService.bump(entityList.stream().map(SysRole::getId).filter(Objects::nonNull).toList());
+        return updated;
+    }
+
+    @Override
+    public boolean saveOrUpdate(SysRole entity) {
+        boolean saved = super.saveOrUpdate(entity);
+        if (saved && entity.getId() != null) {
+            sysRoleVersionService.bump(List.of(entity.getId()));
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean update(SysRole entity, Wrapper<SysRole> updateWrapper) {
+        boolean updated = super.update(entity, updateWrapper);
+        if (updated) {
+            sysRoleVersionService.bumpAll();
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            sysRoleVersionService.bump(List.of(toRoleId(id)));
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeById(SysRole entity) {
+        boolean removed = super.removeById(entity);
+        if (removed) {
+            sysRoleVersionService.bump(List.of(entity.getId()));
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<?> list) {
+        boolean removed = super.removeByIds(list);
+        if (removed) {
+            sysRoleVersionService.bump(list.stream().map(this::toRoleId).filter(Objects::nonNull).toList());
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeByMap(Map<String, Object> columnMap) {
+        boolean removed = super.removeByMap(columnMap);
+        if (removed) {
+            sysRoleVersionService.bumpAll();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Wrapper<SysRole> queryWrapper) {
+        boolean removed = super.remove(queryWrapper);
+        if (removed) {
+            sysRoleVersionService.bumpAll();
+        }
+        return removed;
+    }
+
+    private Long toRoleId(Object id) {
+        return id instanceof SysRole role ? role.getId() : Long.valueOf(id.toString());
+    }
 }
 
 
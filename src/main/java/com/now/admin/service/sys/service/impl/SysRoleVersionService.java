@@ -0,0 +1,121 @@
+package com.now.admin.service.sys.service.impl;
+
+import com.now.admin.common.constant.RedisKeyConstant;
+import com.now.admin.common.util.RedisUtil;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 角色版本号服务
+ * 版本号存储在 sys:role:version hash 中，字段为角色ID；全局字段 * 用于无法确定角色范围的批量修改，
+ * 菜单字段 menu 在任意菜单修改后递增，用于菜单树缓存。
+ * 角色或菜单修改后递增版本号，各节点的角色权限缓存发现版本变化时重新加载；
+ * 角色-菜单关联（role_menu）经 SysRelationServiceImpl 修改时自动递增对应角色的版本号，链式更新需自行调用 bump
+ */
+@Slf4j
+@Service
+public class SysRoleVersionService {
+
+    /**
+     * 全局版本字段
+     */
+    public static final String GLOBAL_FIELD = "*";
+
+    /**
+     * 菜单版本字段
+     */
+    public static final String MENU_FIELD = "menu";
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    /**
+     * 递增指定角色的版本号，处于事务中时在提交后递增
+     *
+     * @param roleIds 角色ID
+     */
+    public void bump(Collection<Long> roleIds) {
+        if (CollectionUtils.isEmpty(roleIds)) {
+            return;
+        }
+        List<Long> ids = List.copyOf(roleIds);
+        afterCommit(() -> ids.forEach(roleId -> redisUtil.hIncr(RedisKeyConstant.ROLE_VERSION_KEY, String.valueOf(roleId), 1)));
+    }
+
+    /**
+     * 递增全局版本号，所有角色的缓存失效
+     */
+    public void bumpAll() {
+        afterCommit(() -> redisUtil.hIncr(RedisKeyConstant.ROLE_VERSION_KEY, GLOBAL_FIELD, 1));
+    }
+
+    /**
+     * 递增菜单版本号
+     */
+    public void bumpMenus() {
+        afterCommit(() -> redisUtil.hIncr(RedisKeyConstant.ROLE_VERSION_KEY, MENU_FIELD, 1));
+    }
+
+    /**
+     * 批量获取版本号，一次访问Redis
+     *
+     * @param roleIds 角色ID
+     * @return 全局版本号 + 各角色版本号，顺序与roleIds一致，不存在的记为0
+     */
+    public long[] versions(List<Long> roleIds) {
+        return versions(List.of(GLOBAL_FIELD), roleIds);
+    }
+
+    /**
+     * 批量获取菜单树依赖的版本号，一次访问Redis
+     *
+     * @param roleIds 角色ID
+     * @return 全局版本号 + 菜单版本号 + 各角色版本号，不存在的记为0
+     */
+    public long[] menuVersions(List<Long> roleIds) {
+        return versions(List.of(GLOBAL_FIELD, MENU_FIELD), roleIds);
+    }
+
+    private long[] versions(List<String> leadingFields, List<Long> roleIds) {
+        List<String> fields = new ArrayList<>(leadingFields.size() + roleIds.size());
+        fields.addAll(leadingFields);
+        roleIds.forEach(roleId -> fields.add(String.valueOf(roleId)));
+        List<Object> values = redisUtil.hMultiGet(RedisKeyConstant.ROLE_VERSION_KEY, fields);
+        long[] versions = new long[fields.size()];
+        for (int i = 0; i < versions.length; i++) {
+            Object value = values == null ? null : values.get(i);
+            versions[i] = value instanceof Number number ? number.longValue() : 0L;
+        }
+        return versions;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runQuietly(action);
+                }
+            });
+        } else {
+            runQuietly(action);
+        }
+    }
+
+    private void runQuietly(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            // 数据已修改成功，版本号递增失败只影响缓存，不回滚业务
+            log.error("角色版本号递增失败: {}", e.getMessage(), e);
+        }
+    }
+}
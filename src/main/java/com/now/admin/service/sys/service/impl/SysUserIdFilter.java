@@ -0,0 +1,270 @@
+package com.now.admin.service.sys.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.now.admin.common.exception.RedisUnavailableException;
+import com.now.admin.common.task.TaskExecutor;
+import com.now.admin.common.util.RedisBloomFilter;
+import com.now.admin.common.util.RedisUtil;
+import com.now.admin.service.sys.domain.SysUser;
+import com.now.admin.service.sys.mapper.SysUserMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * 用户ID过滤器，防止按不存在的用户ID反复查询数据库（缓存穿透）
+ * 已存在的用户ID记录在Redis布隆过滤器 sys:user:bloom:* 中，启动时若不存在则从数据库构建，新增用户时写入；
+ * 布隆过滤器判定不存在的ID直接返回，不查询缓存和数据库。
+ * 布隆过滤器判定可能存在、但数据库中不存在的ID（误判或已删除）记入本地负缓存，存活时间内不再查询
+ *
+ * 布隆过滤器无法删除元素，已删除用户的ID由定期重建清除；重建由一个节点执行，其他节点在重建间隔的一半内不再重复重建，
+ * 构建期间新增的用户同时写入正式位图和重建中的临时位图；
+ * 过滤器未构建完成、位图丢失或Redis不可用时一律按可能存在处理，退回原有查询
+ */
+@Slf4j
+@Service
+public class SysUserIdFilter {
+
+    private static final String BLOOM_KEY_PREFIX = "sys:user:bloom:";
+
+    /**
+     * 构建时每次从数据库读取的ID数
+     */
+    private static final int LOAD_BATCH_SIZE = 10000;
+
+    @Resource
+    private SysUserMapper sysUserMapper;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private TaskExecutor taskExecutor;
+
+    /**
+     * 预计用户数，超出后误判率上升
+     */
+    @Value("${user.bloom.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    /**
+     * 期望误判率
+     */
+    @Value("${user.bloom.fpp:0.01}")
+    private double fpp;
+
+    /**
+     * 负缓存存活时间
+     */
+    @Value("${user.bloom.negative-ttl:60s}")
+    private Duration negativeTtl;
+
+    /**
+     * 负缓存最大条目数
+     */
+    @Value("${user.bloom.negative-size:100000}")
+    private long negativeSize;
+
+    /**
+     * 定期重建的间隔
+     */
+    @Value("${user.bloom.rebuild-interval:6h}")
+    private Duration rebuildInterval;
+
+    private RedisBloomFilter bloomFilter;
+
+    /**
+     * 确认不存在的用户ID
+     */
+    private Cache<Long, Boolean> missingIds;
+
+    /**
+     * 布隆过滤器可用，构建完成前、位图丢失或写入失败后为false
+     */
+    private volatile boolean ready;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final LongAdder filtered = new LongAdder();
+
+    private final LongAdder negativeHits = new LongAdder();
+
+    private final LongAdder falsePositives = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        bloomFilter = new RedisBloomFilter(redisUtil, BLOOM_KEY_PREFIX, expectedInsertions, fpp);
+        missingIds = Caffeine.newBuilder()
+                .maximumSize(negativeSize)
+                .expireAfterWrite(negativeTtl)
+                .build();
+    }
+
+    /**
+     * 启动后在后台检查布隆过滤器，不存在时构建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        taskExecutor.execute(() -> {
+            if (bloomFilter.exists()) {
+                ready = true;
+                log.info("用户ID布隆过滤器已存在，位数:{}，哈希函数:{}", bloomFilter.getBitSize(), bloomFilter.getHashCount());
+            } else {
+                rebuild();
+            }
+        });
+    }
+
+    /**
+     * 定期重建，清除已删除用户的ID，并修复写入失败造成的遗漏
+     */
+    @Scheduled(fixedDelayString = "${user.bloom.rebuild-interval:6h}", initialDelayString = "${user.bloom.rebuild-interval:6h}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * 从数据库重建布隆过滤器，同一时间本节点只执行一次
+     * 其他节点正在重建时等待其完成；构建期间新增的用户由 add 同时写入临时位图，替换后不会丢失
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long startTime = System.currentTimeMillis();
+            long[] count = {0};
+            if (bloomFilter.rebuild(sink -> count[0] = forEachId(sink), rebuildInterval.dividedBy(2))) {
+                ready = true;
+                log.info("用户ID布隆过滤器构建完成，用户数:{}，位数:{}，哈希函数:{}，耗时:{}ms", count[0],
+                        bloomFilter.getBitSize(), bloomFilter.getHashCount(), System.currentTimeMillis() - startTime);
+            } else if (bloomFilter.awaitRebuild()) {
+                ready = true;
+                log.info("用户ID布隆过滤器已由其他节点构建，位数:{}，哈希函数:{}", bloomFilter.getBitSize(), bloomFilter.getHashCount());
+            } else {
+                log.warn("等待其他节点构建用户ID布隆过滤器超时");
+            }
+        } catch (Exception e) {
+            log.error("用户ID布隆过滤器构建失败: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 用户ID是否可能存在
+     *
+     * @param id 用户ID
+     * @return false表示一定不存在
+     */
+    public boolean mightExist(Long id) {
+        if (missingIds.getIfPresent(id) != null) {
+            negativeHits.increment();
+            return false;
+        }
+        if (!ready) {
+            return true;
+        }
+        Boolean exists;
+        try {
+            exists = bloomFilter.mightContain(id);
+        } catch (RedisUnavailableException e) {
+            return true;
+        }
+        if (exists == null) {
+            // 位图丢失，停用并重建
+            ready = false;
+            taskExecutor.execute(this::rebuild);
+            return true;
+        }
+        if (!exists) {
+            filtered.increment();
+        }
+        return exists;
+    }
+
+    /**
+     * 记录确认不存在的用户ID（布隆过滤器误判或用户已删除）
+     */
+    public void recordMissing(Long id) {
+        falsePositives.increment();
+        missingIds.put(id, Boolean.TRUE);
+    }
+
+    /**
+     * 写入新增的用户ID，在插入数据库后、事务提交前调用，事务回滚时只会多出误判
+     */
+    public void add(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        missingIds.invalidateAll(ids);
+        try {
+            if (!bloomFilter.put(ids) && ready) {
+                // 位图丢失，停用并重建
+                ready = false;
+                taskExecutor.execute(this::rebuild);
+            }
+        } catch (RedisUnavailableException e) {
+            // 本节点停用过滤器直到下次重建成功；其他节点在重建前可能误判这些用户不存在
+            ready = false;
+            log.error("用户ID写入布隆过滤器失败，已停用过滤器，ID:{}，{}", ids, e.getMessage());
+        }
+    }
+
+    /**
+     * 过滤器统计
+     */
+    public Stats getStats() {
+        return new Stats(ready, filtered.sum(), negativeHits.sum(), falsePositives.sum(), missingIds.estimatedSize());
+    }
+
+    /**
+     * 按ID升序分批读取全部用户ID，返回读取数量
+     */
+    private long forEachId(LongConsumer consumer) {
+        long count = 0;
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            List<SysUser> users = sysUserMapper.selectList(new LambdaQueryWrapper<SysUser>()
+                    .select(SysUser::getId)
+                    .gt(SysUser::getId, lastId)
+                    .orderByAsc(SysUser::getId)
+                    .last("LIMIT " + LOAD_BATCH_SIZE));
+            for (SysUser user : users) {
+                consumer.accept(user.getId());
+                lastId = user.getId();
+            }
+            count += users.size();
+            if (users.size() < LOAD_BATCH_SIZE) {
+                return count;
+            }
+        }
+    }
+
+    /**
+     * 用户ID过滤器统计
+     *
+     * @param ready          布隆过滤器是否可用
+     * @param filtered       布隆过滤器判定不存在的次数
+     * @param negativeHits   负缓存命中次数
+     * @param falsePositives 可能存在但实际不存在的次数
+     * @param negativeSize   负缓存条目数
+     */
+    public record Stats(boolean ready, long filtered, long negativeHits, long falsePositives, long negativeSize) {
+    }
+}
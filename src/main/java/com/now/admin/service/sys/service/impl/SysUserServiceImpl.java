@@ -1,20 +1,28 @@
 package com.now.admin.service.sys.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.now.admin.common.constant.CacheNameConstant;
 import com.now.admin.service.auth.provider.AuthProvider;
 import com.now.admin.service.sys.domain.SysUser;
 import com.now.admin.service.sys.mapper.SysUserMapper;
 import com.now.admin.service.sys.service.SysUserService;
 
 import jakarta.annotation.Resource;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 
 /**
  * @author zhaixinwei
  * @description 针对表【sys_user(系统用户表)】的数据库操作Service实现
  * @createDate 2026-01-06 15:11:43
+ * 按ID查询用户走二级缓存，按ID修改、删除时清除；其他方式修改用户后需自行清除 sys:user 缓存。
+ * 新增用户时写入用户ID布隆过滤器（SysUserIdFilter），saveOrUpdate 等其他新增方式需自行调用
  */
 @Service
 public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser>
@@ -26,6 +34,9 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser>
     @Resource
     private AuthProvider authProvider;
 
+    @Resource
+    private SysUserIdFilter sysUserIdFilter;
+
     @Override
     public boolean saveUser(SysUser sysUser) {
         return false;
@@ -42,8 +53,37 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser>
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNameConstant.SYS_USER, key = "#id", sync = true)
     public SysUser getUserById(Long id) {
         return getById(id);
     }
 
+    @Override
+    public boolean save(SysUser entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            sysUserIdFilter.add(List.of(entity.getId()));
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean saveBatch(Collection<SysUser> entityList, int batchSize) {
+        boolean saved = super.saveBatch(entityList, batchSize);
+        sysUserIdFilter.add(entityList.stream().map(SysUser::getId).filter(Objects::nonNull).toList());
+        return saved;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheNameConstant.SYS_USER, key = "#entity.id")
+    public boolean updateById(SysUser entity) {
+        return super.updateById(entity);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheNameConstant.SYS_USER, key = "#id")
+    public boolean removeById(Serializable id) {
+        return super.removeById(id);
+    }
+
 }
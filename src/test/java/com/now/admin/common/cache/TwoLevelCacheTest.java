@@ -0,0 +1,106 @@
+package com.now.admin.common.cache;
+
+import com.now.admin.common.util.RedisUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 二级缓存：合并并发加载，加载期间被清除的结果不写入缓存
+ */
+class TwoLevelCacheTest {
+
+    private final RedisUtil redisUtil = Mockito.mock(RedisUtil.class);
+
+    private final TwoLevelCache cache = new TwoLevelCache("test", "cache:",
+            new TwoLevelCacheProperties.Spec(100L, Duration.ofMinutes(1), Duration.ofMinutes(10)), redisUtil);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentLoadsAreCoalesced() throws Exception {
+        when(redisUtil.set(anyString(), any(), anyLong())).thenReturn(true);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> cache.get("k", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await();
+            return "v";
+        }));
+        loading.await();
+        Future<String> second = executor.submit(() -> cache.get("k", () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+        while (cache.getStats().coalescedLoads() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("v");
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("v");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get("k", () -> "reloaded")).isEqualTo("v");
+    }
+
+    @Test
+    void loadOverlappingEvictIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> stale = executor.submit(() -> cache.get("k", () -> {
+            loading.countDown();
+            release.await();
+            return "stale";
+        }));
+        loading.await();
+
+        cache.evict("k");
+        release.countDown();
+
+        assertThat(stale.get(1, TimeUnit.SECONDS)).isEqualTo("stale");
+        assertThat(cache.get("k", () -> "fresh")).isEqualTo("fresh");
+        verify(redisUtil, never()).set(anyString(), eq("stale"), anyLong());
+    }
+
+    @Test
+    void loadOverlappingClearIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> stale = executor.submit(() -> cache.get("k", () -> {
+            loading.countDown();
+            release.await();
+            return "stale";
+        }));
+        loading.await();
+
+        cache.clear();
+        release.countDown();
+
+        assertThat(stale.get(1, TimeUnit.SECONDS)).isEqualTo("stale");
+        assertThat(cache.get("k", () -> "fresh")).isEqualTo("fresh");
+    }
+}
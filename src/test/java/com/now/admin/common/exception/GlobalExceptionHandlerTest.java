@@ -0,0 +1,80 @@
+package com.now.admin.common.exception;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 全局异常处理：异常应返回JSON格式的Result和对应的HTTP状态码，而不是按请求路径解析视图
+ */
+class GlobalExceptionHandlerTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ThrowingController())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void accessDeniedReturnsForbiddenResult() throws Exception {
+        mockMvc.perform(get("/test/denied"))
+                .andExpect(status().isForbidden())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value(403))
+                .andExpect(jsonPath("$.msg").value("未授权"));
+    }
+
+    @Test
+    void rateLimitReturnsTooManyRequestsWithRetryAfter() throws Exception {
+        mockMvc.perform(get("/test/limited"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value(429))
+                .andExpect(jsonPath("$.msg").value("请求过于频繁，请3秒后重试"))
+                .andExpect(jsonPath("$.data").value(3));
+    }
+
+    @Test
+    void commonExceptionReturnsResult() throws Exception {
+        mockMvc.perform(get("/test/common"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value(400))
+                .andExpect(jsonPath("$.msg").value("参数错误"));
+    }
+
+    @RestController
+    static class ThrowingController {
+
+        @GetMapping("/test/denied")
+        public String denied() {
+            throw new AccessDeniedException("缺少权限");
+        }
+
+        @GetMapping("/test/limited")
+        public String limited() {
+            throw new RateLimitException(3);
+        }
+
+        @GetMapping("/test/common")
+        public String common() {
+            throw new CommonException("参数错误");
+        }
+    }
+}
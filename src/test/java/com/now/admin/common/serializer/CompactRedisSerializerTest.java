@@ -0,0 +1,166 @@
+package com.now.admin.common.serializer;
+
+import com.now.admin.common.config.RedisConfig;
+import com.now.admin.common.util.TestFixtures;
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import com.now.admin.service.auth.domain.PermissionSet;
+import com.now.admin.service.sys.domain.SysUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Redis值序列化：注册类型的二进制编解码往返、JSON回退和两种格式的兼容读取
+ */
+class CompactRedisSerializerTest {
+
+    private final CompactRedisSerializer binary = TestFixtures.redisValueSerializer(true);
+
+    private final CompactRedisSerializer jsonOnly = TestFixtures.redisValueSerializer(false);
+
+    @Test
+    void loginUserWithSharedPermissionSetKeepsOnlyTheReference() {
+        LoginUserDetail loginUser = loginUser();
+        loginUser.setPermissionSet(new PermissionSet("c0ffee00c0ffee00", Set.of("admin"), Set.of("sys:user:list")));
+
+        byte[] bytes = binary.serialize(loginUser);
+        LoginUserDetail read = (LoginUserDetail) binary.deserialize(bytes);
+
+        assertThat(bytes[0]).isEqualTo(CompactRedisSerializer.MAGIC);
+        assertThat(read.getId()).isEqualTo(loginUser.getId());
+        assertThat(read.getUsername()).isEqualTo(loginUser.getUsername());
+        assertThat(read.getAvatar()).isNull();
+        assertThat(read.getStatus()).isEqualTo(loginUser.getStatus());
+        assertThat(read.getLoginTime()).isEqualTo(loginUser.getLoginTime());
+        assertThat(read.getPermSetId()).isEqualTo("c0ffee00c0ffee00");
+        assertThat(read.getRoles()).isNull();
+        assertThat(read.getPerms()).isNull();
+    }
+
+    @Test
+    void loginUserWithoutPermissionSetKeepsRolesAndPerms() {
+        LoginUserDetail loginUser = loginUser();
+        loginUser.setRoles(Set.of("admin", "ops"));
+        loginUser.setPerms(Set.of("sys:user:list", "sys:user:edit"));
+
+        LoginUserDetail read = binary.deserialize(binary.serialize(loginUser), LoginUserDetail.class);
+
+        assertThat(read.getPermSetId()).isNull();
+        assertThat(read.getRoles()).containsExactlyInAnyOrder("admin", "ops");
+        assertThat(read.getPerms()).containsExactlyInAnyOrder("sys:user:list", "sys:user:edit");
+    }
+
+    @Test
+    void permissionSetRoundTrip() {
+        PermissionSet permissionSet = new PermissionSet("c0ffee00c0ffee00", Set.of("admin", "ops"),
+                Set.of("sys:user:list", "sys:role:edit"));
+
+        PermissionSet read = binary.deserialize(binary.serialize(permissionSet), PermissionSet.class);
+
+        assertThat(read.getId()).isEqualTo(permissionSet.getId());
+        assertThat(read.getRoles()).isEqualTo(permissionSet.getRoles());
+        assertThat(read.getPerms()).isEqualTo(permissionSet.getPerms());
+        assertThat(read.getAuthorities()).hasSize(2);
+    }
+
+    @Test
+    void sysUserRoundTrip() {
+        SysUser sysUser = new SysUser();
+        sysUser.setId(10001L);
+        sysUser.setUsername("admin");
+        sysUser.setAvatar("https://static.example.com/avatar/10001.png");
+        sysUser.setGender("1");
+        sysUser.setStatus(1);
+        sysUser.setDeletedFlag(0);
+        sysUser.setBirthday(LocalDateTime.of(1990, 5, 1, 0, 0));
+        sysUser.setCreatedTime(LocalDateTime.of(2025, 12, 25, 10, 30, 15, 123_000_000));
+
+        assertThat(binary.deserialize(binary.serialize(sysUser))).isEqualTo(sysUser);
+    }
+
+    @Test
+    void unregisteredTypesStayJson() {
+        assertThat(new String(binary.serialize("abc"))).isEqualTo("\"abc\"");
+        assertThat(binary.deserialize(binary.serialize(42L))).isInstanceOfSatisfying(Number.class,
+                number -> assertThat(number.longValue()).isEqualTo(42L));
+        assertThat(binary.deserialize(binary.serialize(new HashMap<>(Map.of("k", "v"))))).isEqualTo(Map.of("k", "v"));
+        assertThat(binary.serialize(null)).isEmpty();
+        assertThat(binary.deserialize(new byte[0])).isNull();
+    }
+
+    @Test
+    void bothFormatsAreReadableWhateverIsWritten() {
+        SysUser sysUser = new SysUser();
+        sysUser.setId(1L);
+        sysUser.setUsername("admin");
+
+        byte[] json = jsonOnly.serialize(sysUser);
+        byte[] bytes = binary.serialize(sysUser);
+
+        assertThat(json[0]).isNotEqualTo(CompactRedisSerializer.MAGIC);
+        assertThat(binary.deserialize(json)).isEqualTo(sysUser);
+        assertThat(jsonOnly.deserialize(bytes)).isEqualTo(sysUser);
+    }
+
+    @Test
+    void rejectsUnknownTypeAndNewerVersion() {
+        assertThatThrownBy(() -> binary.deserialize(new byte[]{CompactRedisSerializer.MAGIC, (byte) 200, 1}))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> binary.deserialize(new byte[]{CompactRedisSerializer.MAGIC, 1, 2}))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> binary.deserialize(new byte[]{CompactRedisSerializer.MAGIC, 1}))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> binary.deserialize(binary.serialize(loginUser()), SysUser.class))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void rejectsCodecUsingReservedTypeId() {
+        ValueCodec<String> reserved = new ValueCodec<>() {
+            @Override
+            public Class<String> type() {
+                return String.class;
+            }
+
+            @Override
+            public int typeId() {
+                return 3;
+            }
+
+            @Override
+            public int version() {
+                return 1;
+            }
+
+            @Override
+            public void write(String value, CompactWriter writer) {
+                writer.writeString(value);
+            }
+
+            @Override
+            public String read(CompactReader reader, int version) {
+                return reader.readString();
+            }
+        };
+
+        assertThatThrownBy(() -> new RedisConfig().redisValueSerializer(List.of(reserved), true))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static LoginUserDetail loginUser() {
+        LoginUserDetail loginUser = new LoginUserDetail();
+        loginUser.setId(10001L);
+        loginUser.setUsername("admin");
+        loginUser.setStatus(1);
+        loginUser.setLoginTime(LocalDateTime.of(2026, 1, 6, 15, 12, 11));
+        return loginUser;
+    }
+}
@@ -0,0 +1,138 @@
+package com.now.admin.common.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * 本地租约限流：本地扣减、小限流值直接访问Redis、空闲归还，以及归还与并发扣减同时发生时不多放行
+ * 全局令牌桶用模拟对象代替，按申请数量全部发放并记录归还数
+ */
+class LocalRateLimiterTest {
+
+    private static final String KEY = "rate:limit:test:global";
+
+    private final RedisRateLimiter redisRateLimiter = Mockito.mock(RedisRateLimiter.class);
+
+    private final AtomicLong leased = new AtomicLong();
+
+    private final AtomicLong refunded = new AtomicLong();
+
+    private LocalRateLimiter localRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        when(redisRateLimiter.lease(anyList())).thenAnswer(invocation -> {
+            List<RedisRateLimiter.Lease> leases = invocation.getArgument(0);
+            List<Long> results = new ArrayList<>();
+            for (RedisRateLimiter.Lease lease : leases) {
+                leased.addAndGet(lease.requested());
+                refunded.addAndGet(lease.refund());
+                results.add(lease.requested());
+            }
+            return results;
+        });
+        localRateLimiter = new LocalRateLimiter();
+        ReflectionTestUtils.setField(localRateLimiter, "redisRateLimiter", redisRateLimiter);
+        ReflectionTestUtils.setField(localRateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(localRateLimiter, "leaseRatio", 0.1);
+        ReflectionTestUtils.setField(localRateLimiter, "minLeaseCount", 100);
+        ReflectionTestUtils.setField(localRateLimiter, "maxKeys", 100L);
+        ReflectionTestUtils.setField(localRateLimiter, "idleExpire", Duration.ofMinutes(2));
+        localRateLimiter.init();
+    }
+
+    @Test
+    void consumesLocallyUntilLeaseRunsOut() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(localRateLimiter.tryAcquire(KEY, 1000, 60)).isZero();
+        }
+
+        // 每次租用桶容量的10%
+        assertThat(leased.get()).isEqualTo(100);
+        assertThat(localRateLimiter.getStats().syncLeases()).isEqualTo(1);
+    }
+
+    @Test
+    void smallLimitsGoStraightToRedis() {
+        when(redisRateLimiter.tryAcquire(KEY, 30, 60)).thenReturn(0L);
+
+        assertThat(localRateLimiter.tryAcquire(KEY, 30, 60)).isZero();
+
+        Mockito.verify(redisRateLimiter).tryAcquire(KEY, 30, 60);
+        assertThat(leased.get()).isZero();
+        assertThat(localRateLimiter.getStats().keys()).isZero();
+    }
+
+    @Test
+    void idleKeyReturnsUnusedTokens() {
+        localRateLimiter.tryAcquire(KEY, 1000, 60);
+        localRateLimiter.reconcile();
+
+        localRateLimiter.reconcile();
+
+        assertThat(refunded.get()).isEqualTo(99);
+    }
+
+    @Test
+    void refundRacingWithConsumersNeverReturnsUsedTokens() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong allowed = new AtomicLong();
+        try {
+            List<Future<?>> consumers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                consumers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        if (localRateLimiter.tryAcquire(KEY, 1000, 60) == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            // 每次同步都按空闲key处理，与扣减并发收回全部未用令牌
+            Future<?> reconciler = executor.submit(() -> {
+                while (running.get()) {
+                    reconcileAsIdle();
+                }
+            });
+            Thread.sleep(500);
+            running.set(false);
+            for (Future<?> consumer : consumers) {
+                consumer.get(1, TimeUnit.SECONDS);
+            }
+            reconciler.get(1, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        // 停止后归还剩余令牌，此时租出未归还的令牌都已被使用
+        reconcileAsIdle();
+
+        assertThat(allowed.get()).isPositive();
+        assertThat(allowed.get()).isEqualTo(leased.get() - refunded.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reconcileAsIdle() {
+        Cache<String, ?> buckets = (Cache<String, ?>) ReflectionTestUtils.getField(localRateLimiter, "buckets");
+        buckets.asMap().values().forEach(bucket -> ((LongAdder) ReflectionTestUtils.getField(bucket, "demand")).reset());
+        localRateLimiter.reconcile();
+    }
+}
@@ -0,0 +1,100 @@
+package com.now.admin.common.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Redis布隆过滤器：重建锁、重建期间写入不丢失、最近重建后跳过
+ * 使用Testcontainers启动的Redis执行真实的Lua脚本
+ */
+class RedisBloomFilterTest {
+
+    private static final String KEY_PREFIX = "test:bloom:";
+
+    private RedisUtil redisUtil;
+
+    private RedisBloomFilter bloomFilter;
+
+    @BeforeEach
+    void setUp() {
+        redisUtil = RedisTestSupport.redisUtil();
+        RedisTestSupport.flushAll();
+        bloomFilter = new RedisBloomFilter(redisUtil, KEY_PREFIX, 10_000, 0.01);
+    }
+
+    @Test
+    void queriesBeforeFirstBuildAreUnknown() {
+        assertThat(bloomFilter.mightContain(1L)).isNull();
+        assertThat(bloomFilter.put(List.of(1L))).isFalse();
+        assertThat(bloomFilter.exists()).isFalse();
+    }
+
+    @Test
+    void rebuildContainsAllSourceElements() {
+        assertThat(bloomFilter.rebuild(sink -> LongStream.range(0, 5000).forEach(sink), Duration.ZERO)).isTrue();
+
+        assertThat(LongStream.range(0, 5000).allMatch(value -> Boolean.TRUE.equals(bloomFilter.mightContain(value)))).isTrue();
+        long falsePositives = LongStream.range(100_000, 110_000).filter(value -> bloomFilter.mightContain(value)).count();
+        assertThat(falsePositives).isLessThan(300);
+        assertThat(redisUtil.getExpire(KEY_PREFIX + bloomFilter.getBitSize() + ":" + bloomFilter.getHashCount())).isEqualTo(-1);
+    }
+
+    @Test
+    void elementsAddedDuringRebuildSurviveReplacement() {
+        bloomFilter.rebuild(sink -> LongStream.range(0, 100).forEach(sink), Duration.ZERO);
+        RedisBloomFilter otherNode = new RedisBloomFilter(redisUtil, KEY_PREFIX, 10_000, 0.01);
+
+        bloomFilter.rebuild(sink -> {
+            LongStream.range(0, 100).forEach(sink);
+            // 读取数据库之后由其他节点新增，ID不一定大于已读取的ID
+            assertThat(otherNode.put(List.of(-42L, 7_000_000L))).isTrue();
+        }, Duration.ZERO);
+
+        assertThat(bloomFilter.mightContain(-42L)).isTrue();
+        assertThat(bloomFilter.mightContain(7_000_000L)).isTrue();
+    }
+
+    @Test
+    void concurrentRebuildOnAnotherNodeIsSkipped() {
+        RedisBloomFilter otherNode = new RedisBloomFilter(redisUtil, KEY_PREFIX, 10_000, 0.01);
+        boolean[] otherRebuilt = {true};
+
+        boolean rebuilt = bloomFilter.rebuild(sink -> {
+            otherRebuilt[0] = otherNode.rebuild(otherSink -> otherSink.accept(1L), Duration.ZERO);
+            sink.accept(2L);
+        }, Duration.ZERO);
+
+        assertThat(rebuilt).isTrue();
+        assertThat(otherRebuilt[0]).isFalse();
+        assertThat(otherNode.awaitRebuild()).isTrue();
+        assertThat(bloomFilter.mightContain(2L)).isTrue();
+    }
+
+    @Test
+    void recentRebuildIsNotRepeated() {
+        assertThat(bloomFilter.rebuild(sink -> sink.accept(1L), Duration.ofMinutes(1))).isTrue();
+
+        assertThat(bloomFilter.rebuild(sink -> sink.accept(2L), Duration.ofMinutes(1))).isFalse();
+        assertThat(bloomFilter.mightContain(1L)).isTrue();
+    }
+
+    @Test
+    void failedRebuildReleasesLockAndKeepsOldBitmap() {
+        bloomFilter.rebuild(sink -> sink.accept(1L), Duration.ZERO);
+
+        assertThatThrownBy(() -> bloomFilter.rebuild(sink -> {
+            throw new IllegalStateException("数据库不可用");
+        }, Duration.ZERO)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(bloomFilter.mightContain(1L)).isTrue();
+        assertThat(bloomFilter.rebuild(sink -> sink.accept(3L), Duration.ZERO)).isTrue();
+        assertThat(bloomFilter.mightContain(3L)).isTrue();
+    }
+}
@@ -0,0 +1,154 @@
+package com.now.admin.common.util;
+
+import com.now.admin.common.exception.RedisUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Redis熔断器：按窗口失败率打开、半开探测，以及只有探测许可内的调用计入半开统计
+ */
+class RedisCircuitBreakerTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void opensWhenFailureRateExceedsThreshold() {
+        RedisCircuitBreaker circuitBreaker = circuitBreaker(1);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> circuitBreaker.run(RedisCircuitBreakerTest::timeout))
+                    .isInstanceOf(RedisUnavailableException.class);
+        }
+
+        AtomicBoolean invoked = new AtomicBoolean();
+        assertThatThrownBy(() -> circuitBreaker.run(() -> invoked.set(true))).isInstanceOf(RedisUnavailableException.class);
+        assertThat(invoked).isFalse();
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.getStats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void closesAfterSuccessfulProbes() throws InterruptedException {
+        RedisCircuitBreaker circuitBreaker = circuitBreaker(2);
+        open(circuitBreaker);
+        Thread.sleep(60);
+
+        circuitBreaker.run(() -> {
+        });
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.HALF_OPEN);
+        circuitBreaker.run(() -> {
+        });
+
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getStats().windowCalls()).isZero();
+    }
+
+    @Test
+    void callsStartedBeforeHalfOpenAreNotCountedAsProbes() throws Exception {
+        RedisCircuitBreaker circuitBreaker = circuitBreaker(1);
+        CountDownLatch releaseEarly = new CountDownLatch(1);
+        CountDownLatch earlyStarted = new CountDownLatch(1);
+        Future<?> early = executor.submit(() -> circuitBreaker.run(() -> {
+            earlyStarted.countDown();
+            await(releaseEarly);
+        }));
+        earlyStarted.await();
+        open(circuitBreaker);
+        Thread.sleep(60);
+
+        CountDownLatch releaseProbe = new CountDownLatch(1);
+        CountDownLatch probeStarted = new CountDownLatch(1);
+        Future<?> probe = executor.submit(() -> circuitBreaker.run(() -> {
+            probeStarted.countDown();
+            await(releaseProbe);
+        }));
+        probeStarted.await();
+
+        releaseEarly.countDown();
+        early.get(1, TimeUnit.SECONDS);
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.HALF_OPEN);
+        // 探测许可已用完
+        assertThatThrownBy(() -> circuitBreaker.run(() -> {
+        })).isInstanceOf(RedisUnavailableException.class);
+
+        releaseProbe.countDown();
+        probe.get(1, TimeUnit.SECONDS);
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void concurrentCallsFillWindowWithoutLosingCounts() throws Exception {
+        RedisCircuitBreaker circuitBreaker = circuitBreaker(1);
+        Future<?>[] workers = new Future<?>[8];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = executor.submit(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    circuitBreaker.run(() -> {
+                    });
+                }
+            });
+        }
+        for (Future<?> worker : workers) {
+            worker.get(10, TimeUnit.SECONDS);
+        }
+
+        RedisCircuitBreaker.Stats stats = circuitBreaker.getStats();
+        assertThat(stats.state()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(stats.calls()).isEqualTo(80_000);
+        assertThat(stats.windowCalls()).isEqualTo(10);
+        assertThat(stats.failureRate()).isZero();
+        assertThat(ReflectionTestUtils.getField(circuitBreaker, "windowCount").toString()).isEqualTo("10");
+    }
+
+    private static RedisCircuitBreaker circuitBreaker(int halfOpenCalls) {
+        RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker();
+        ReflectionTestUtils.setField(circuitBreaker, "windowSize", 10);
+        ReflectionTestUtils.setField(circuitBreaker, "minimumCalls", 4);
+        ReflectionTestUtils.setField(circuitBreaker, "failureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(circuitBreaker, "slowCallDuration", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(circuitBreaker, "slowCallRateThreshold", 0.5);
+        ReflectionTestUtils.setField(circuitBreaker, "openDuration", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(circuitBreaker, "halfOpenCalls", halfOpenCalls);
+        circuitBreaker.init();
+        return circuitBreaker;
+    }
+
+    private static void open(RedisCircuitBreaker circuitBreaker) {
+        while (circuitBreaker.getState() == RedisCircuitBreaker.State.CLOSED) {
+            try {
+                circuitBreaker.run(RedisCircuitBreakerTest::timeout);
+            } catch (RedisUnavailableException ignored) {
+                // 预期的失败
+            }
+        }
+    }
+
+    private static void timeout() {
+        throw new QueryTimeoutException("timeout");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
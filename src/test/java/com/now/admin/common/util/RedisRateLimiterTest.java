@@ -0,0 +1,92 @@
+package com.now.admin.common.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GCRA令牌桶：突发容量、按间隔补充、等待时间、部分发放和归还
+ * 使用Testcontainers启动的Redis执行真实的Lua脚本
+ */
+class RedisRateLimiterTest {
+
+    private static final String KEY = "test:rate:limit";
+
+    private RedisUtil redisUtil;
+
+    private RedisRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        redisUtil = RedisTestSupport.redisUtil();
+        RedisTestSupport.flushAll();
+        rateLimiter = new RedisRateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "redisUtil", redisUtil);
+    }
+
+    @Test
+    void burstUpToCapacityThenWaitForOneInterval() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryAcquire(KEY, 5, 10)).isZero();
+        }
+
+        // 10秒5个令牌，每2秒补充一个，等待时间为第一个令牌补充前的剩余时间
+        assertThat(rateLimiter.tryAcquire(KEY, 5, 10)).isBetween(1000L, 2000L);
+        assertThat(rateLimiter.getStats().allowed()).isEqualTo(5);
+        assertThat(rateLimiter.getStats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void tokensRefillAfterInterval() throws InterruptedException {
+        assertThat(rateLimiter.tryAcquire(KEY, 2, 1)).isZero();
+        assertThat(rateLimiter.tryAcquire(KEY, 2, 1)).isZero();
+        assertThat(rateLimiter.tryAcquire(KEY, 2, 1)).isPositive();
+
+        Thread.sleep(550);
+
+        assertThat(rateLimiter.tryAcquire(KEY, 2, 1)).isZero();
+        assertThat(rateLimiter.tryAcquire(KEY, 2, 1)).isPositive();
+    }
+
+    @Test
+    void keyExpiresWhenBucketIsFull() {
+        rateLimiter.tryAcquire(KEY, 5, 10);
+
+        // 只用了一个令牌，2秒后补满
+        assertThat(redisUtil.getExpire(KEY)).isBetween(1L, 2L);
+    }
+
+    @Test
+    void leaseGrantsPartiallyWhenBucketRunsLow() {
+        assertThat(rateLimiter.lease(List.of(lease(10, 0)))).containsExactly(4L);
+
+        List<Long> rejected = rateLimiter.lease(List.of(lease(1, 0)));
+        assertThat(rejected.get(0)).isBetween(-2500L, -1500L);
+    }
+
+    @Test
+    void refundReturnsTokensBeforeRequesting() {
+        rateLimiter.lease(List.of(lease(4, 0)));
+
+        assertThat(rateLimiter.lease(List.of(lease(0, 2)))).containsExactly(0L);
+        assertThat(rateLimiter.lease(List.of(lease(3, 0)))).containsExactly(2L);
+    }
+
+    @Test
+    void refundNeverExceedsCapacity() {
+        rateLimiter.lease(List.of(lease(1, 0)));
+
+        assertThat(rateLimiter.lease(List.of(lease(10, 5)))).containsExactly(4L);
+    }
+
+    /**
+     * 10秒4个令牌，每2.5秒补充一个
+     */
+    private static RedisRateLimiter.Lease lease(long requested, long refund) {
+        return new RedisRateLimiter.Lease(KEY, 4, 10, requested, refund);
+    }
+}
@@ -0,0 +1,74 @@
+package com.now.admin.common.util;
+
+import com.now.admin.common.config.RedisConfig;
+import com.now.admin.common.serializer.CompactRedisSerializer;
+import org.junit.jupiter.api.Assumptions;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+
+/**
+ * 测试用Redis
+ * 通过Testcontainers启动Redis容器，同一JVM内的测试共用一个容器；
+ * 不启动Spring容器，按配置文件的默认值手工组装RedisUtil。Docker不可用时跳过依赖Redis的测试
+ */
+public final class RedisTestSupport {
+
+    private static GenericContainer<?> container;
+
+    private static RedisUtil redisUtil;
+
+    private RedisTestSupport() {
+    }
+
+    /**
+     * 连接测试容器的RedisUtil，首次调用时启动容器
+     */
+    public static synchronized RedisUtil redisUtil() {
+        Assumptions.assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker不可用，跳过Redis测试");
+        if (redisUtil == null) {
+            container = new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+            container.start();
+            LettuceConnectionFactory connectionFactory =
+                    new LettuceConnectionFactory(container.getHost(), container.getMappedPort(6379));
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+
+            CompactRedisSerializer serializer = TestFixtures.redisValueSerializer(true);
+            RedisUtil util = new RedisUtil();
+            ReflectionTestUtils.setField(util, "redisTemplate", new RedisConfig().redisTemplate(connectionFactory, serializer));
+            ReflectionTestUtils.setField(util, "serializer", serializer);
+            ReflectionTestUtils.setField(util, "circuitBreaker", circuitBreaker());
+            redisUtil = util;
+        }
+        return redisUtil;
+    }
+
+    /**
+     * 清空测试容器中的数据
+     */
+    public static void flushAll() {
+        redisUtil().execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
+    }
+
+    private static RedisCircuitBreaker circuitBreaker() {
+        RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker();
+        ReflectionTestUtils.setField(circuitBreaker, "windowSize", 100);
+        ReflectionTestUtils.setField(circuitBreaker, "minimumCalls", 20);
+        ReflectionTestUtils.setField(circuitBreaker, "failureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(circuitBreaker, "slowCallDuration", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(circuitBreaker, "slowCallRateThreshold", 0.5);
+        ReflectionTestUtils.setField(circuitBreaker, "openDuration", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(circuitBreaker, "halfOpenCalls", 5);
+        circuitBreaker.init();
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,68 @@
+package com.now.admin.common.util;
+
+import com.now.admin.common.config.RedisConfig;
+import com.now.admin.common.config.SecretKeyConfig;
+import com.now.admin.common.serializer.CompactRedisSerializer;
+import com.now.admin.common.serializer.codec.LoginUserDetailCodec;
+import com.now.admin.common.serializer.codec.PermissionSetCodec;
+import com.now.admin.common.serializer.codec.SysUserCodec;
+import com.now.admin.service.auth.common.security.PermissionRegistry;
+import com.now.admin.service.auth.service.impl.PermissionSetService;
+import com.now.admin.service.auth.service.impl.TokenService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 测试和基准测试共用的被测对象
+ * 不启动Spring容器，按配置文件的默认值手工组装
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    /**
+     * Redis值序列化器，注册与生产环境相同的编解码器
+     *
+     * @param binaryEnabled 是否写入二进制格式，false时与原JSON序列化器相同
+     */
+    public static CompactRedisSerializer redisValueSerializer(boolean binaryEnabled) {
+        return new RedisConfig().redisValueSerializer(List.of(new LoginUserDetailCodec(), new PermissionSetCodec(),
+                new SysUserCodec()), binaryEnabled);
+    }
+
+    /**
+     * 使用新生成的RSA-2048密钥对初始化密钥配置
+     */
+    public static SecretKeyConfig secretKeyConfig() {
+        Map<String, String> keyPair = RsaUtil.generateKeyPair();
+        SecretKeyConfig secretKeyConfig = new SecretKeyConfig();
+        ReflectionTestUtils.setField(secretKeyConfig, "configPrivateKey", keyPair.get("privateKey"));
+        ReflectionTestUtils.setField(secretKeyConfig, "configPublicKey", keyPair.get("publicKey"));
+        ReflectionTestUtils.setField(secretKeyConfig, "jwtAlgorithmCode", "RS256");
+        ReflectionTestUtils.setField(secretKeyConfig, "keyRetention", Duration.ofDays(30));
+        secretKeyConfig.init();
+        return secretKeyConfig;
+    }
+
+    public static TokenService tokenService(SecretKeyConfig secretKeyConfig) {
+        TokenService tokenService = new TokenService();
+        ReflectionTestUtils.setField(tokenService, "secretKeyConfig", secretKeyConfig);
+        ReflectionTestUtils.setField(tokenService, "tokenCacheSize", 10000L);
+        ReflectionTestUtils.setField(tokenService, "tokenExpireJitter", Duration.ofHours(1));
+        tokenService.init();
+        return tokenService;
+    }
+
+    public static PermissionSetService permissionSetService(RedisUtil redisUtil) {
+        PermissionSetService permissionSetService = new PermissionSetService();
+        ReflectionTestUtils.setField(permissionSetService, "redisUtil", redisUtil);
+        ReflectionTestUtils.setField(permissionSetService, "permissionRegistry", new PermissionRegistry());
+        ReflectionTestUtils.setField(permissionSetService, "permSetCacheSize", 1000L);
+        permissionSetService.init();
+        return permissionSetService;
+    }
+}
@@ -0,0 +1,80 @@
+package com.now.admin.service.auth.common.security;
+
+import com.now.admin.common.constant.AppStatusEnum;
+import com.now.admin.service.auth.common.exception.AuthenticateException;
+import com.now.admin.service.auth.domain.ParsedToken;
+import com.now.admin.service.auth.service.impl.LoginSessionService;
+import com.now.admin.service.auth.service.impl.TokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * JWT认证过滤器：刷新Token接口不解析请求头中的访问Token，刷新Token不能用于访问接口
+ */
+class JwtAuthenticationFilterTest {
+
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+
+    private final TokenService tokenService = Mockito.mock(TokenService.class);
+
+    private final LoginSessionService loginSessionService = Mockito.mock(LoginSessionService.class);
+
+    @BeforeEach
+    void setUp() {
+        when(tokenService.parseToken(anyString())).thenThrow(new AuthenticateException(AppStatusEnum.TOKEN_EXPIRED));
+        ReflectionTestUtils.setField(filter, "tokenService", tokenService);
+        ReflectionTestUtils.setField(filter, "loginSessionService", loginSessionService);
+    }
+
+    @Test
+    void refreshWithExpiredAccessTokenReachesController() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/refresh");
+        request.addHeader("Authorization", "Bearer expired");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+    }
+
+    @Test
+    void otherRequestsWithExpiredAccessTokenAreRejected() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sys/user/list");
+        request.addHeader("Authorization", "Bearer expired");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getContentAsString()).contains(String.valueOf(AppStatusEnum.TOKEN_EXPIRED.getCode()));
+    }
+
+    @Test
+    void refreshTokenCannotAuthenticateRequests() throws Exception {
+        Date now = new Date();
+        Mockito.doReturn(new ParsedToken(10001L, "flag", now, new Date(now.getTime() + 60_000), "kid", ParsedToken.TYPE_REFRESH))
+                .when(tokenService).parseToken("refresh");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sys/user/list");
+        request.addHeader("Authorization", "Bearer refresh");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getContentAsString()).contains(String.valueOf(AppStatusEnum.VALIDATE_TOKEN_FAIL.getCode()));
+        Mockito.verifyNoInteractions(loginSessionService);
+    }
+}
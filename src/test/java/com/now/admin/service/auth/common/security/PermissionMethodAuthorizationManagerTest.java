@@ -0,0 +1,88 @@
+package com.now.admin.service.auth.common.security;
+
+import com.now.admin.common.annotation.RequiresPerms;
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import com.now.admin.service.auth.domain.PermissionSet;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * 方法级授权：同一继承方法在不同目标类上按各自的类级注解校验
+ */
+class PermissionMethodAuthorizationManagerTest {
+
+    private final PermissionRegistry registry = new PermissionRegistry();
+
+    @SuppressWarnings("unchecked")
+    private final PermissionMethodAuthorizationManager manager =
+            new PermissionMethodAuthorizationManager(Mockito.mock(ObjectProvider.class, invocation -> registry));
+
+    @Test
+    void inheritedMethodUsesEachTargetClassAnnotation() throws NoSuchMethodException {
+        Method list = BaseController.class.getMethod("list");
+        Authentication userReader = authentication("sys:user:list");
+
+        assertThat(manager.authorize(() -> userReader, invocation(list, new UserController())).isGranted()).isTrue();
+        assertThat(manager.authorize(() -> userReader, invocation(list, new RoleController())).isGranted()).isFalse();
+        assertThat(manager.authorize(() -> userReader, invocation(list, new UserController())).isGranted()).isTrue();
+    }
+
+    @Test
+    void overridingMethodAnnotationTakesPrecedence() throws NoSuchMethodException {
+        Method list = BaseController.class.getMethod("list");
+
+        assertThat(manager.authorize(() -> authentication("sys:menu:list"), invocation(list, new MenuController()))
+                .isGranted()).isTrue();
+        assertThat(manager.authorize(() -> authentication("sys:user:list"), invocation(list, new MenuController()))
+                .isGranted()).isFalse();
+    }
+
+    private Authentication authentication(String... perms) {
+        LoginUserDetail loginUser = new LoginUserDetail();
+        loginUser.setPermissionSet(new PermissionSet("test", Set.of(), Set.of(perms), registry.encode(List.of(perms))));
+        return new UsernamePasswordAuthenticationToken(loginUser, null, List.of());
+    }
+
+    private static MethodInvocation invocation(Method method, Object target) {
+        MethodInvocation invocation = Mockito.mock(MethodInvocation.class);
+        when(invocation.getMethod()).thenReturn(method);
+        when(invocation.getThis()).thenReturn(target);
+        return invocation;
+    }
+
+    static class BaseController {
+
+        public String list() {
+            return "list";
+        }
+    }
+
+    @RequiresPerms("sys:user:list")
+    static class UserController extends BaseController {
+    }
+
+    @RequiresPerms("sys:role:list")
+    static class RoleController extends BaseController {
+    }
+
+    @RequiresPerms("sys:role:list")
+    static class MenuController extends BaseController {
+
+        @Override
+        @RequiresPerms("sys:menu:list")
+        public String list() {
+            return "menu";
+        }
+    }
+}
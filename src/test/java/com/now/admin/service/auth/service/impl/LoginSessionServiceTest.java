@@ -0,0 +1,318 @@
+package com.now.admin.service.auth.service.impl;
+
+import com.now.admin.common.constant.RedisKeyConstant;
+import com.now.admin.common.domain.vo.LoginRsp;
+import com.now.admin.common.util.RedisTestSupport;
+import com.now.admin.common.util.RedisUtil;
+import com.now.admin.common.util.TestFixtures;
+import com.now.admin.service.auth.domain.LoginUserDetail;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 登录会话脚本：会话单独过期、会话数上限、后台清理、刷新Token轮换、伪造Token与重放检测
+ * 使用Testcontainers启动的Redis执行真实的Lua脚本
+ */
+class LoginSessionServiceTest {
+
+    private static final long USER_ID = 10001L;
+
+    private static final String SESSION_KEY = RedisKeyConstant.LOGIN_USER_PREFIX + USER_ID;
+
+    private static TokenService tokenService;
+
+    private RedisUtil redisUtil;
+
+    private LoginSessionService loginSessionService;
+
+    @BeforeAll
+    static void initTokenService() {
+        tokenService = TestFixtures.tokenService(TestFixtures.secretKeyConfig());
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisUtil = RedisTestSupport.redisUtil();
+        RedisTestSupport.flushAll();
+
+        loginSessionService = new LoginSessionService();
+        ReflectionTestUtils.setField(loginSessionService, "tokenService", tokenService);
+        ReflectionTestUtils.setField(loginSessionService, "redisUtil", redisUtil);
+        ReflectionTestUtils.setField(loginSessionService, "permissionSetService", TestFixtures.permissionSetService(redisUtil));
+        ReflectionTestUtils.setField(loginSessionService, "loginAuditService", Mockito.mock(LoginAuditService.class));
+        ReflectionTestUtils.setField(loginSessionService, "refreshTokenModeCode", "opaque");
+        ReflectionTestUtils.setField(loginSessionService, "sessionCacheSize", 100L);
+        // 不使用近端缓存，每次读取都执行Redis
+        ReflectionTestUtils.setField(loginSessionService, "sessionCacheTtl", Duration.ZERO);
+        ReflectionTestUtils.setField(loginSessionService, "maxConcurrentSessions", 2);
+        ReflectionTestUtils.setField(loginSessionService, "sweepBatchSize", 200);
+        ReflectionTestUtils.setField(loginSessionService, "renewTtl", Duration.ofSeconds(10080));
+        ReflectionTestUtils.setField(loginSessionService, "renewThresholdRatio", 0.5);
+        ReflectionTestUtils.setField(loginSessionService, "renewBatchSize", 500);
+        ReflectionTestUtils.setField(loginSessionService, "degradedMaxStale", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(loginSessionService, "refreshReuseGrace", Duration.ZERO);
+        loginSessionService.init();
+    }
+
+    @Test
+    void sessionsExpireIndependently() throws InterruptedException {
+        LoginRsp shortLived = login(1);
+        LoginRsp longLived = login(600);
+
+        Thread.sleep(1100);
+
+        assertThat(session(shortLived)).isEmpty();
+        assertThat(session(longLived)).isPresent();
+    }
+
+    @Test
+    void loginBeyondLimitEvictsEarliestExpiringSession() {
+        LoginRsp first = login(3000);
+        LoginRsp earliest = login(1000);
+        LoginRsp third = login(2000);
+
+        assertThat(session(earliest)).isEmpty();
+        assertThat(redisUtil.hHasKey(SESSION_KEY, RedisKeyConstant.LOGIN_EXPIRE_FIELD_PREFIX + loginFlag(earliest))).isFalse();
+        assertThat(session(first)).isPresent();
+        assertThat(session(third)).isPresent();
+    }
+
+    @Test
+    void sweepRemovesExpiredFieldsAndKeepsLiveSessions() throws InterruptedException {
+        LoginRsp expired = login(1);
+        LoginRsp live = login(600);
+        Thread.sleep(1100);
+        assertThat(redisUtil.hHasKey(SESSION_KEY, loginFlag(expired))).isTrue();
+
+        loginSessionService.sweepExpiredSessions();
+
+        assertThat(redisUtil.hHasKey(SESSION_KEY, loginFlag(expired))).isFalse();
+        assertThat(redisUtil.hHasKey(SESSION_KEY, RedisKeyConstant.LOGIN_EXPIRE_FIELD_PREFIX + loginFlag(expired))).isFalse();
+        assertThat(redisUtil.hHasKey(SESSION_KEY, RedisKeyConstant.LOGIN_REFRESH_FIELD_PREFIX + loginFlag(expired))).isFalse();
+        assertThat(session(live)).isPresent();
+    }
+
+    @Test
+    void removingLastSessionClearsRoleIndex() {
+        LoginRsp first = login(600);
+        LoginRsp second = login(600);
+        assertThat(roleIndexMembers("admin")).containsExactly(String.valueOf(USER_ID));
+
+        loginSessionService.removeSession(session(first).orElseThrow());
+        assertThat(roleIndexMembers("admin")).containsExactly(String.valueOf(USER_ID));
+
+        loginSessionService.removeSession(session(second).orElseThrow());
+        assertThat(roleIndexMembers("admin")).isEmpty();
+        assertThat(redisUtil.hasKey(SESSION_KEY)).isFalse();
+    }
+
+    @Test
+    void revokeUsersClearsRoleIndexAndSweepEntry() {
+        LoginRsp login = login(600);
+        assertThat(inSweepIndex()).isTrue();
+
+        assertThat(loginSessionService.revokeUsers(Set.of(USER_ID))).isEqualTo(1);
+
+        assertThat(session(login)).isEmpty();
+        assertThat(redisUtil.hasKey(SESSION_KEY)).isFalse();
+        assertThat(roleIndexMembers("admin")).isEmpty();
+        assertThat(inSweepIndex()).isFalse();
+        assertThat(loginSessionService.revokeUsers(Set.of(USER_ID))).isZero();
+    }
+
+    @Test
+    void revokeRolesRemovesSessionsAndIndexes() {
+        LoginRsp login = login(600);
+
+        assertThat(loginSessionService.revokeRoles(Set.of("admin"))).isEqualTo(1);
+
+        assertThat(session(login)).isEmpty();
+        assertThat(redisUtil.hasKey(RedisKeyConstant.LOGIN_ROLE_INDEX_PREFIX + "admin")).isFalse();
+        assertThat(inSweepIndex()).isFalse();
+        // 新登录重新写入索引
+        login(600);
+        assertThat(roleIndexMembers("admin")).containsExactly(String.valueOf(USER_ID));
+    }
+
+    @Test
+    void sweepingLastExpiredSessionClearsRoleIndex() throws InterruptedException {
+        login(1);
+        Thread.sleep(1100);
+
+        loginSessionService.sweepExpiredSessions();
+
+        assertThat(roleIndexMembers("admin")).isEmpty();
+        assertThat(redisUtil.hHasKey(SESSION_KEY, RedisKeyConstant.LOGIN_ROLE_INDEX_FIELD)).isFalse();
+    }
+
+    @Test
+    void refreshMovesSessionAndLeavesRotatedPointer() {
+        LoginRsp login = login(600);
+        Object expireAt = redisUtil.hGet(SESSION_KEY, RedisKeyConstant.LOGIN_EXPIRE_FIELD_PREFIX + loginFlag(login));
+
+        LoginRsp refreshed = loginSessionService.refresh(login.getRefreshToken()).orElseThrow();
+
+        assertThat(loginFlag(refreshed)).isNotEqualTo(loginFlag(login));
+        assertThat(session(login)).isEmpty();
+        assertThat(session(refreshed)).isPresent();
+        assertThat(redisUtil.hHasKey(SESSION_KEY, "rotated:" + loginFlag(login))).isTrue();
+        assertThat(redisUtil.hHasKey(SESSION_KEY, RedisKeyConstant.LOGIN_REFRESH_FIELD_PREFIX + loginFlag(login))).isFalse();
+        // 新会话保留原过期时间，不因刷新延长
+        assertThat(redisUtil.hGet(SESSION_KEY, RedisKeyConstant.LOGIN_EXPIRE_FIELD_PREFIX + loginFlag(refreshed)))
+                .isEqualTo(expireAt);
+    }
+
+    @Test
+    void reusedRefreshTokenRevokesSuccessor() {
+        LoginRsp login = login(600);
+        LoginRsp refreshed = loginSessionService.refresh(login.getRefreshToken()).orElseThrow();
+
+        assertThat(loginSessionService.refresh(login.getRefreshToken())).isEmpty();
+
+        assertThat(session(refreshed)).isEmpty();
+        assertThat(redisUtil.hHasKey(SESSION_KEY, "rotated:" + loginFlag(login))).isFalse();
+        assertThat(loginSessionService.refresh(refreshed.getRefreshToken())).isEmpty();
+    }
+
+    @Test
+    void forgedRefreshTokenLeavesSessionAlone() {
+        LoginRsp login = login(600);
+
+        assertThat(loginSessionService.refresh(USER_ID + "." + loginFlag(login) + ".forged")).isEmpty();
+
+        assertThat(session(login)).isPresent();
+        assertThat(loginSessionService.refresh(login.getRefreshToken())).isPresent();
+    }
+
+    @Test
+    void forgedRotatedRefreshTokenLeavesSuccessorAlone() {
+        LoginRsp login = login(600);
+        LoginRsp refreshed = loginSessionService.refresh(login.getRefreshToken()).orElseThrow();
+
+        assertThat(loginSessionService.refresh(USER_ID + "." + loginFlag(login) + ".forged")).isEmpty();
+
+        assertThat(session(refreshed)).isPresent();
+        // 后继会话仍存在时，登录时的清理保留轮换记录
+        login(600);
+        assertThat(redisUtil.hHasKey(SESSION_KEY, "rotated:" + loginFlag(login))).isTrue();
+    }
+
+    @Test
+    void concurrentRefreshesWithinGraceKeepWinningSession() throws Exception {
+        ReflectionTestUtils.setField(loginSessionService, "refreshReuseGrace", Duration.ofSeconds(10));
+        LoginRsp login = login(600);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Optional<LoginRsp>>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return loginSessionService.refresh(login.getRefreshToken());
+                }));
+            }
+            start.countDown();
+            List<LoginRsp> refreshed = new ArrayList<>();
+            for (Future<Optional<LoginRsp>> result : results) {
+                result.get(5, TimeUnit.SECONDS).ifPresent(refreshed::add);
+            }
+
+            assertThat(refreshed).hasSize(1);
+            assertThat(session(refreshed.get(0))).isPresent();
+            assertThat(loginSessionService.refresh(refreshed.get(0).getRefreshToken())).isPresent();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void jwtModeRefreshesOnlyWithRefreshTokens() {
+        ReflectionTestUtils.setField(loginSessionService, "refreshTokenModeCode", "jwt");
+        loginSessionService.init();
+        LoginRsp login = login(600);
+        String loginFlag = tokenService.parseToken(login.getToken()).getLoginFlag();
+
+        assertThat(loginSessionService.refresh(login.getToken())).isEmpty();
+        assertThat(loginSessionService.getSession(USER_ID, loginFlag)).isPresent();
+
+        LoginRsp refreshed = loginSessionService.refresh(login.getRefreshToken()).orElseThrow();
+        assertThat(tokenService.parseToken(refreshed.getToken()).isRefreshToken()).isFalse();
+        assertThat(tokenService.parseToken(refreshed.getRefreshToken()).isRefreshToken()).isTrue();
+    }
+
+    @Test
+    void renewalExtendsOnlyLiveSessions() {
+        LoginRsp live = login(600);
+        LoginRsp removed = login(600);
+        LoginUserDetail liveSession = session(live).orElseThrow();
+        LoginUserDetail removedSession = session(removed).orElseThrow();
+        loginSessionService.removeSession(removedSession);
+
+        loginSessionService.flushRenewals();
+
+        long expireAt = ((Number) redisUtil.hGet(SESSION_KEY, RedisKeyConstant.LOGIN_EXPIRE_FIELD_PREFIX + loginFlag(live))).longValue();
+        assertThat(expireAt).isEqualTo(liveSession.getExpireAt());
+        assertThat(redisUtil.getExpire(SESSION_KEY)).isGreaterThan(600);
+        // 共享权限集与会话一起延长，登录时只保留两倍的会话有效期
+        assertThat(redisUtil.getExpire(RedisKeyConstant.PERM_SET_PREFIX + liveSession.getPermSetId()))
+                .isGreaterThanOrEqualTo(redisUtil.getExpire(SESSION_KEY));
+        assertThat(redisUtil.hHasKey(SESSION_KEY, loginFlag(removed))).isFalse();
+        assertThat(redisUtil.hHasKey(SESSION_KEY, RedisKeyConstant.LOGIN_EXPIRE_FIELD_PREFIX + loginFlag(removed))).isFalse();
+    }
+
+    private LoginRsp login(long expireTime) {
+        LoginUserDetail loginUser = new LoginUserDetail();
+        loginUser.setId(USER_ID);
+        loginUser.setUsername("admin");
+        loginUser.setStatus(1);
+        loginUser.setRoles(Set.of("admin"));
+        loginUser.setPerms(Set.of("sys:user:list", "sys:user:edit"));
+        return loginSessionService.createSession(loginUser, expireTime);
+    }
+
+    private Optional<LoginUserDetail> session(LoginRsp loginRsp) {
+        return loginSessionService.getSession(loginRsp.getUserId(), loginFlag(loginRsp));
+    }
+
+    /**
+     * 角色反向索引的成员，脚本写入的是用户ID的原始字符串
+     */
+    private Set<String> roleIndexMembers(String roleFlag) {
+        return redisUtil.sGet(RedisKeyConstant.LOGIN_ROLE_INDEX_PREFIX + roleFlag).stream()
+                .map(String::valueOf)
+                .collect(Collectors.toSet());
+    }
+
+    private boolean inSweepIndex() {
+        Double score = redisUtil.execute((RedisCallback<Double>) connection -> connection.zSetCommands().zScore(
+                RedisKeyConstant.LOGIN_SWEEP_KEY.getBytes(StandardCharsets.UTF_8),
+                String.valueOf(USER_ID).getBytes(StandardCharsets.UTF_8)));
+        return score != null;
+    }
+
+    /**
+     * 不透明刷新Token的格式为 {userId}.{loginFlag}.{secret}
+     */
+    private static String loginFlag(LoginRsp loginRsp) {
+        return loginRsp.getRefreshToken().split("\\.")[1];
+    }
+}
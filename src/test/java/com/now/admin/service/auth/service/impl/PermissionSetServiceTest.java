@@ -0,0 +1,55 @@
+package com.now.admin.service.auth.service.impl;
+
+import com.now.admin.common.exception.InnerCommonException;
+import com.now.admin.common.util.RedisUtil;
+import com.now.admin.common.util.TestFixtures;
+import com.now.admin.service.auth.domain.PermissionSet;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 共享权限集：本节点一个会话周期内只写入一次，写入失败时下次重新写入
+ */
+class PermissionSetServiceTest {
+
+    private static final Set<String> ROLES = Set.of("admin");
+
+    private static final Set<String> PERMS = Set.of("sys:user:list");
+
+    private final RedisUtil redisUtil = Mockito.mock(RedisUtil.class);
+
+    private final PermissionSetService permissionSetService = TestFixtures.permissionSetService(redisUtil);
+
+    @Test
+    void writesOncePerSessionLifetime() {
+        when(redisUtil.set(anyString(), any(), anyLong())).thenReturn(true);
+
+        PermissionSet first = permissionSetService.intern(ROLES, PERMS, 600);
+        PermissionSet second = permissionSetService.intern(ROLES, PERMS, 600);
+
+        assertThat(second).isSameAs(first);
+        verify(redisUtil, times(1)).set(anyString(), any(), anyLong());
+    }
+
+    @Test
+    void failedWriteIsRetriedOnNextLogin() {
+        when(redisUtil.set(anyString(), any(), anyLong())).thenReturn(false, true);
+
+        assertThatThrownBy(() -> permissionSetService.intern(ROLES, PERMS, 600)).isInstanceOf(InnerCommonException.class);
+        permissionSetService.intern(ROLES, PERMS, 600);
+        permissionSetService.intern(ROLES, PERMS, 600);
+
+        verify(redisUtil, times(2)).set(anyString(), any(), anyLong());
+    }
+}